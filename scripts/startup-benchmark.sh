@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# Measures time to first frame and time to first prompt for each startup variant.
+# Build first with: mvn clean package -Pruntime-image
+# Usage: scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-10}"
+JAR="target/AdvancedJavaProject-1.0-SNAPSHOT.jar"
+RUNTIME="target/runtime/bin/java"
+ARCHIVE="target/typing-tester.jsa"
+PROBE="-Dtypingtester.startupProbe=true"
+
+# Prints the median of the values read from standard input
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# Runs one variant RUNS times and prints the median of both measurements
+benchmark() {
+    local name="$1"
+    shift
+    local frames=() prompts=()
+    for ((i = 0; i < RUNS; i++)); do
+        local output
+        output="$("$@" "$PROBE" -jar "$JAR")"
+        frames+=("$(grep -oP 'first-frame-ms=\K[0-9]+' <<< "$output")")
+        prompts+=("$(grep -oP 'first-prompt-ms=\K[0-9]+' <<< "$output")")
+    done
+    printf '%-22s first frame %6s ms   first prompt %6s ms\n' "$name" \
+        "$(printf '%s\n' "${frames[@]}" | median)" \
+        "$(printf '%s\n' "${prompts[@]}" | median)"
+}
+
+benchmark "system JDK" java
+benchmark "jlink runtime" "$RUNTIME" -Xshare:auto
+benchmark "jlink runtime + AppCDS" "$RUNTIME" "-XX:SharedArchiveFile=$ARCHIVE"
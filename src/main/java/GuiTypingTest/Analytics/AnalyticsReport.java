@@ -0,0 +1,249 @@
+package GuiTypingTest.Analytics;
+
+import GuiTypingTest.TestMode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static GuiTypingTest.Analytics.SessionAnalytics.*;
+
+/**
+ * Class to write merged session analytics as CSV files or a JSON document.
+ * CSV output is three files (key-latency.csv, bigram-errors.csv and mode-trends.csv);
+ * JSON output is a single analytics.json holding the same three tables.
+ */
+public class AnalyticsReport {
+    private final SessionAnalytics analytics;
+
+    /**
+     * Constructs a new AnalyticsReport.
+     *
+     * @param analytics the merged analytics to report
+     */
+    public AnalyticsReport(SessionAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    /**
+     * Writes the report as CSV files.
+     *
+     * @param directory the directory to write to
+     * @throws IOException if a file cannot be written
+     */
+    public void writeCsv(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintWriter out = writer(directory.resolve("key-latency.csv"))) {
+            out.println("key_code,key,count,mean_ms,p50_ms,p90_ms");
+            for (List<Object> row : latencyRows()) {
+                out.println(csv(row));
+            }
+        }
+        try (PrintWriter out = writer(directory.resolve("bigram-errors.csv"))) {
+            out.println("first,second,count,errors,error_rate");
+            for (List<Object> row : bigramRows()) {
+                out.println(csv(row));
+            }
+        }
+        try (PrintWriter out = writer(directory.resolve("mode-trends.csv"))) {
+            out.println("text_option,format_option,time_option,day,tests,mean_wpm,mean_accuracy");
+            for (List<Object> row : trendRows()) {
+                out.println(csv(row));
+            }
+        }
+    }
+
+    /**
+     * Writes the report as a JSON document.
+     *
+     * @param directory the directory to write to
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintWriter out = writer(directory.resolve("analytics.json"))) {
+            out.println("{");
+            out.println("  \"keyLatency\": " + json(List.of("keyCode", "key", "count", "meanMs", "p50Ms", "p90Ms"), latencyRows()) + ",");
+            out.println("  \"bigramErrors\": " + json(List.of("first", "second", "count", "errors", "errorRate"), bigramRows()) + ",");
+            out.println("  \"modeTrends\": " + json(List.of("textOption", "formatOption", "timeOption", "day", "tests", "meanWpm", "meanAccuracy"), trendRows()));
+            out.println("}");
+        }
+    }
+
+    /**
+     * Builds the per-key latency table, one row per key that was typed.
+     *
+     * @return the table rows
+     */
+    private List<List<Object>> latencyRows() {
+        List<List<Object>> rows = new ArrayList<>();
+        for (int key = 0; key < KEYS; key++) {
+            long count = 0;
+            for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+                count += analytics.latencyCount(key, bucket);
+            }
+            if (count > 0) {
+                rows.add(List.of(key, keyName(key), count, round((double) analytics.latencySum(key) / count),
+                        latencyPercentile(key, count, 0.5), latencyPercentile(key, count, 0.9)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Builds the bigram error table, one row per pair of keys typed in a row.
+     *
+     * @return the table rows
+     */
+    private List<List<Object>> bigramRows() {
+        List<List<Object>> rows = new ArrayList<>();
+        for (int first = 0; first < KEYS; first++) {
+            for (int second = 0; second < KEYS; second++) {
+                long count = analytics.bigramCount(first, second);
+                long errors = analytics.bigramErrors(first, second);
+                if (count > 0) {
+                    rows.add(List.of(keyName(first), keyName(second), count, errors, round((double) errors / count)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Builds the speed trend table, one row per mode and day, in date order.
+     *
+     * @return the table rows
+     */
+    private List<List<Object>> trendRows() {
+        List<List<Object>> rows = new ArrayList<>();
+        analytics.trends().entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<TrendKey, double[]> e) -> e.getKey().modeIndex())
+                        .thenComparing(e -> e.getKey().day()))
+                .forEach(e -> {
+                    TestMode mode = TestMode.fromIndex(e.getKey().modeIndex());
+                    double[] values = e.getValue();
+                    rows.add(List.of(mode.textOption(), mode.formatOption(), mode.timeOption(), e.getKey().day().toString(),
+                            (long) values[0], round(values[1] / values[0]), round(values[2] / values[0])));
+                });
+        return rows;
+    }
+
+    /**
+     * Finds the latency below which a fraction of a key's samples fall.
+     *
+     * @param key      the key slot
+     * @param count    the number of samples of the key
+     * @param fraction the fraction of samples
+     * @return the upper edge of the bucket holding the percentile, in milliseconds
+     */
+    private int latencyPercentile(int key, long count, double fraction) {
+        long target = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+            seen += analytics.latencyCount(key, bucket);
+            if (seen >= target) {
+                return (bucket + 1) * LATENCY_BUCKET_MILLIS;
+            }
+        }
+        return LATENCY_BUCKETS * LATENCY_BUCKET_MILLIS;
+    }
+
+    /**
+     * Gets a readable name for a key slot.
+     *
+     * @param key the key slot
+     * @return the key itself, a name for whitespace, or "other"
+     */
+    private static String keyName(int key) {
+        if (key == KEYS - 1) {
+            return "other";
+        }
+        if (key == ' ') {
+            return "space";
+        }
+        return Character.isISOControl(key) ? "U+" + String.format("%04X", key) : String.valueOf((char) key);
+    }
+
+    /**
+     * Rounds a value to three decimal places.
+     *
+     * @param value the value
+     * @return the rounded value
+     */
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * Formats a row as a CSV line, quoting text that needs it.
+     *
+     * @param row the row values
+     * @return the CSV line
+     */
+    private static String csv(List<Object> row) {
+        StringBuilder line = new StringBuilder();
+        for (Object value : row) {
+            if (!line.isEmpty()) {
+                line.append(',');
+            }
+            String text = format(value);
+            if (text.contains(",") || text.contains("\"")) {
+                text = "\"" + text.replace("\"", "\"\"") + "\"";
+            }
+            line.append(text);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Formats a table as a JSON array of objects.
+     *
+     * @param names the field names
+     * @param rows  the table rows
+     * @return the JSON array
+     */
+    private static String json(List<String> names, List<List<Object>> rows) {
+        StringBuilder array = new StringBuilder("[");
+        for (int r = 0; r < rows.size(); r++) {
+            array.append(r == 0 ? "\n    {" : ",\n    {");
+            List<Object> row = rows.get(r);
+            for (int i = 0; i < names.size(); i++) {
+                Object value = row.get(i);
+                String text = value instanceof String string
+                        ? "\"" + string.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+                        : format(value);
+                array.append(i == 0 ? "" : ", ").append('"').append(names.get(i)).append("\": ").append(text);
+            }
+            array.append('}');
+        }
+        return array.append(rows.isEmpty() ? "]" : "\n  ]").toString();
+    }
+
+    /**
+     * Formats a value without locale-specific separators.
+     *
+     * @param value the value
+     * @return the formatted value
+     */
+    private static String format(Object value) {
+        return value instanceof Double number ? String.format(Locale.ROOT, "%.3f", number) : String.valueOf(value);
+    }
+
+    /**
+     * Opens a UTF-8 writer for a report file.
+     *
+     * @param file the file to write
+     * @return the writer
+     * @throws IOException if the file cannot be opened
+     */
+    private static PrintWriter writer(Path file) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,88 @@
+package GuiTypingTest.Analytics;
+
+import GuiTypingTest.Sessions.SessionLogReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.*;
+import java.util.stream.Stream;
+
+/**
+ * Class to analyse a directory of recorded sessions in parallel.
+ * The logs are taken a batch at a time, so only one batch is ever open, however many sessions
+ * have been recorded. Within a batch the work is split into one unit per block of each log and
+ * run on the common fork/join pool. Every worker fills its own {@link SessionAnalytics}, and the
+ * partial aggregates are merged pairwise as the work joins, so throughput grows with the number of cores.
+ */
+public class BatchAnalytics {
+    /**
+     * The number of logs open at once.
+     */
+    private static final int BATCH_LOGS = 512;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BatchAnalytics() {
+    }
+
+    /**
+     * Analyses every session log under a directory, one batch of logs at a time.
+     * Files that are not readable session logs are logged, skipped and counted.
+     *
+     * @param directory the directory to search, including subdirectories
+     * @return the merged analytics
+     * @throws IOException if the directory cannot be listed
+     */
+    public static SessionAnalytics analyse(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(path -> path.toString().endsWith(".ttk") && Files.isRegularFile(path)).toList();
+        }
+        SessionAnalytics total = new SessionAnalytics();
+        for (int from = 0; from < files.size(); from += BATCH_LOGS) {
+            List<Path> batch = files.subList(from, Math.min(files.size(), from + BATCH_LOGS));
+            List<SessionLogReader> logs = batch.parallelStream().map(BatchAnalytics::openLog).filter(log -> log != null).toList();
+            total.merge(analyse(logs));
+            for (int i = logs.size(); i < batch.size(); i++) {
+                total.addSkipped();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Analyses a set of session logs in parallel.
+     *
+     * @param logs the logs to analyse
+     * @return the merged analytics
+     */
+    public static SessionAnalytics analyse(List<SessionLogReader> logs) {
+        List<SessionAnalytics.BlockUnit> units = new ArrayList<>();
+        for (SessionLogReader log : logs) {
+            // Every log gets at least one unit so its result is counted even without keystrokes
+            for (int block = 0; block < Math.max(1, log.getBlockCount()); block++) {
+                units.add(new SessionAnalytics.BlockUnit(log, block));
+            }
+        }
+        return units.parallelStream().collect(SessionAnalytics::new, SessionAnalytics::add, SessionAnalytics::merge);
+    }
+
+    /**
+     * Opens one session log.
+     *
+     * @param file the log file
+     * @return the opened log, or null if it cannot be read
+     */
+    private static SessionLogReader openLog(Path file) {
+        try {
+            return new SessionLogReader(file);
+        } catch (IOException e) {
+            Logger.getLogger(BatchAnalytics.class.getName()).log(Level.WARNING, "Skipping " + file, e);
+            return null;
+        }
+    }
+}
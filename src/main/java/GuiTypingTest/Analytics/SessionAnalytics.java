@@ -0,0 +1,266 @@
+package GuiTypingTest.Analytics;
+
+import GuiTypingTest.Result;
+import GuiTypingTest.Sessions.KeystrokeListener;
+import GuiTypingTest.Sessions.SessionLogReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SessionAnalytics is a partial aggregate over blocks of recorded sessions.
+ * Each thread fills its own instance from the blocks it is given, and the instances are
+ * merged at the end, so no counter is ever shared between threads while they work.
+ * It collects per-key latency histograms, a bigram error heatmap and per-mode speed trends.
+ * <p>
+ * Latencies and bigrams are measured within a block, so the first event of each block
+ * (one in 4096) has no predecessor and is not counted. A latency is only measured from one typed
+ * key to the next; the pause after a backspace or a submission is thinking time, not typing,
+ * so the key after one has no latency.
+ */
+public class SessionAnalytics {
+    /**
+     * The number of keys tracked individually; every other key shares the last slot.
+     */
+    public static final int KEYS = 129;
+
+    /**
+     * The width of a latency histogram bucket in milliseconds.
+     */
+    public static final int LATENCY_BUCKET_MILLIS = 10;
+
+    /**
+     * The number of latency buckets; the last one holds every latency beyond the others.
+     */
+    public static final int LATENCY_BUCKETS = 201;
+
+    private final long[] latencyHistogram = new long[KEYS * LATENCY_BUCKETS];
+    private final long[] latencySum = new long[KEYS];
+    private final long[] bigramCounts = new long[KEYS * KEYS];
+    private final long[] bigramErrors = new long[KEYS * KEYS];
+    private final Map<TrendKey, double[]> trends = new HashMap<>();
+    private long sessions;
+    private long skipped;
+
+    /**
+     * Adds one block of a session log to this aggregate.
+     * The first block of each log also adds the session's result to the speed trends.
+     *
+     * @param unit the log and block to add
+     */
+    public void add(BlockUnit unit) {
+        SessionLogReader log = unit.log();
+        if (unit.block() == 0) {
+            sessions++;
+            addTrend(log);
+        }
+        if (unit.block() >= log.getBlockCount()) {
+            return; // a session with no keystrokes only has a result
+        }
+        try {
+            log.forEachEventInBlock(unit.block(), new BlockScanner());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Merges another partial aggregate into this one.
+     *
+     * @param other the aggregate to merge
+     */
+    public void merge(SessionAnalytics other) {
+        sessions += other.sessions;
+        skipped += other.skipped;
+        addAll(latencyHistogram, other.latencyHistogram);
+        addAll(latencySum, other.latencySum);
+        addAll(bigramCounts, other.bigramCounts);
+        addAll(bigramErrors, other.bigramErrors);
+        other.trends.forEach((key, values) -> {
+            double[] mine = trends.computeIfAbsent(key, k -> new double[3]);
+            for (int i = 0; i < mine.length; i++) {
+                mine[i] += values[i];
+            }
+        });
+    }
+
+    /**
+     * Counts a log that could not be read, so the report can say what it left out.
+     */
+    public void addSkipped() {
+        skipped++;
+    }
+
+    /**
+     * Gets the number of sessions analysed.
+     *
+     * @return the number of sessions
+     */
+    public long sessionCount() {
+        return sessions;
+    }
+
+    /**
+     * Gets the number of logs that could not be read.
+     *
+     * @return the number of skipped logs
+     */
+    public long skippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Gets the number of latency samples of a key in a histogram bucket.
+     *
+     * @param key    the key slot
+     * @param bucket the latency bucket
+     * @return the number of samples
+     */
+    public long latencyCount(int key, int bucket) {
+        return latencyHistogram[key * LATENCY_BUCKETS + bucket];
+    }
+
+    /**
+     * Gets the total latency measured for a key.
+     *
+     * @param key the key slot
+     * @return the total latency in milliseconds
+     */
+    public long latencySum(int key) {
+        return latencySum[key];
+    }
+
+    /**
+     * Gets how often a key was typed straight after another.
+     *
+     * @param previous the key slot of the first key
+     * @param key      the key slot of the second key
+     * @return the number of times the pair was typed
+     */
+    public long bigramCount(int previous, int key) {
+        return bigramCounts[previous * KEYS + key];
+    }
+
+    /**
+     * Gets how often a key typed straight after another was then deleted.
+     *
+     * @param previous the key slot of the first key
+     * @param key      the key slot of the second, mistyped, key
+     * @return the number of errors
+     */
+    public long bigramErrors(int previous, int key) {
+        return bigramErrors[previous * KEYS + key];
+    }
+
+    /**
+     * Gets the speed trends, keyed by mode and day. Each value holds the number of
+     * tests, the sum of their speeds and the sum of their accuracies.
+     *
+     * @return the speed trends
+     */
+    public Map<TrendKey, double[]> trends() {
+        return trends;
+    }
+
+    /**
+     * Gets the slot a key is counted in.
+     *
+     * @param key the key
+     * @return the key slot
+     */
+    public static int slotOf(char key) {
+        return key < KEYS - 1 ? key : KEYS - 1;
+    }
+
+    /**
+     * Adds the result of a session to the speed trend of its mode and day.
+     *
+     * @param log the session log
+     */
+    private void addTrend(SessionLogReader log) {
+        Result result = log.getResult();
+        if (result == null) {
+            return; // the session did not finish
+        }
+        LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(log.getStartEpochMillis()), ZoneId.systemDefault());
+        double[] values = trends.computeIfAbsent(new TrendKey(log.getMode().index(), day), k -> new double[3]);
+        values[0]++;
+        values[1] += result.calculateSpeed();
+        values[2] += result.calculateAccuracy();
+    }
+
+    /**
+     * Adds every element of one array to the matching element of another.
+     *
+     * @param target the array to add to
+     * @param source the array to add
+     */
+    private static void addAll(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    /**
+     * One block of one session log, the unit of parallel work.
+     *
+     * @param log   the session log
+     * @param block the index of the block
+     */
+    public record BlockUnit(SessionLogReader log, int block) {
+    }
+
+    /**
+     * The key of a speed trend entry.
+     *
+     * @param modeIndex the index of the test mode
+     * @param day       the day the tests were taken
+     */
+    public record TrendKey(int modeIndex, LocalDate day) {
+    }
+
+    /**
+     * Walks the events of one block, remembering the last two events to measure
+     * latencies and to spot keys that were deleted straight after being typed.
+     */
+    private final class BlockScanner implements KeystrokeListener {
+        private long previousTime = -1;
+        private int previousKey = -1;
+        private int keyBeforePrevious = -1;
+
+        @Override
+        public void onKeystroke(long nanos, char key, byte type) {
+            if (type == SUBMITTED_CHAR) {
+                return; // the text of a submission, not typed keys
+            }
+            if (type == KEY) {
+                int slot = slotOf(key);
+                if (previousTime >= 0) {
+                    long millis = (nanos - previousTime) / 1_000_000;
+                    int bucket = (int) Math.min(LATENCY_BUCKETS - 1, millis / LATENCY_BUCKET_MILLIS);
+                    latencyHistogram[slot * LATENCY_BUCKETS + bucket]++;
+                    latencySum[slot] += millis;
+                }
+                if (previousKey >= 0) {
+                    bigramCounts[previousKey * KEYS + slot]++;
+                }
+                keyBeforePrevious = previousKey;
+                previousKey = slot;
+                previousTime = nanos;
+            } else {
+                if (type == BACKSPACE && previousKey >= 0 && keyBeforePrevious >= 0) {
+                    bigramErrors[keyBeforePrevious * KEYS + previousKey]++;
+                }
+                // A deletion or submission breaks the run of typed keys, and the pause after it is not a key latency
+                previousKey = -1;
+                keyBeforePrevious = -1;
+                previousTime = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package GuiTypingTest;
+
+import GuiTypingTest.Analytics.AnalyticsReport;
+import GuiTypingTest.Analytics.BatchAnalytics;
+import GuiTypingTest.Analytics.SessionAnalytics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The AnalyticsMain class is the command-line entry point for batch analytics.
+ * It analyses every recorded session under a directory and writes per-key latencies,
+ * bigram error rates and per-mode speed trends as CSV or JSON.
+ * <p>
+ * Usage: {@code AnalyticsMain [sessions-directory] [output-directory] [--json]}
+ */
+public class AnalyticsMain {
+    /**
+     * The main method runs the analysis and prints a short summary.
+     *
+     * @param args the sessions directory (default SessionLogs), the output directory
+     *             (default AnalyticsReport) and --json to write JSON instead of CSV
+     */
+    public static void main(String[] args) {
+        boolean json = List.of(args).contains("--json");
+        List<String> paths = List.of(args).stream().filter(arg -> !arg.startsWith("--")).toList();
+        Path sessions = Paths.get(paths.size() > 0 ? paths.get(0) : System.getProperty("user.dir") + "/SessionLogs");
+        Path output = Paths.get(paths.size() > 1 ? paths.get(1) : System.getProperty("user.dir") + "/AnalyticsReport");
+
+        try {
+            long start = System.nanoTime();
+            SessionAnalytics analytics = BatchAnalytics.analyse(sessions);
+            AnalyticsReport report = new AnalyticsReport(analytics);
+            if (json) {
+                report.writeJson(output);
+            } else {
+                report.writeCsv(output);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Analysed " + analytics.sessionCount() + " sessions in " + millis + " ms, report written to " + output);
+            if (analytics.skippedCount() > 0) {
+                System.err.println("Skipped " + analytics.skippedCount() + " unreadable session logs; see the warnings above");
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
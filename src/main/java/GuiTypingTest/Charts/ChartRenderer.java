@@ -0,0 +1,25 @@
+package GuiTypingTest.Charts;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * The ChartRenderer interface defines the methods required for drawing the progress charts.
+ * Implementations are loaded on demand by {@link ChartService}, so the charting library
+ * they use stays off the startup path.
+ */
+public interface ChartRenderer {
+    /**
+     * Draws the charts into an image.
+     * The progress chart shows speed and accuracy per test, and when a speed series is given
+     * a second chart below it shows the speed over the course of the latest test.
+     *
+     * @param speedHistory    the speed of each test in words per minute
+     * @param accuracyHistory the accuracy of each test in percent
+     * @param speedOverTime   the speed within the latest test per interval, or an empty array
+     * @param intervalSeconds the length of each interval of the speed series in seconds
+     * @param width           the width of the image
+     * @return the image with the charts drawn on it
+     */
+    BufferedImage render(List<Integer> speedHistory, List<Integer> accuracyHistory, double[] speedOverTime, long intervalSeconds, int width);
+}
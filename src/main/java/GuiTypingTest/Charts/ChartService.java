@@ -0,0 +1,93 @@
+package GuiTypingTest.Charts;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.*;
+
+/**
+ * ChartService loads the chart renderer on demand and keeps the latest chart image.
+ * The renderer is loaded by name on a background thread the first time charts are needed,
+ * so the charting library never slows down startup. Every new set of results is drawn
+ * in the background straight away, and the image is reused until the next results arrive,
+ * so showing the graph does not have to wait for the charts to be drawn.
+ */
+public class ChartService {
+    /**
+     * The class name of the renderer, loaded by name to keep it off the startup path.
+     */
+    private static final String RENDERER_CLASS = "GuiTypingTest.Charts.JFreeChartRenderer";
+
+    /**
+     * The width of the chart image.
+     */
+    private static final int WIDTH = 800;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chart-renderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CompletableFuture<ChartRenderer> renderer;
+    private CompletableFuture<BufferedImage> image;
+
+    /**
+     * Starts drawing the charts for new results in the background.
+     * The first call also loads the renderer, so calling this as soon as results are
+     * shown warms the charts up while the user reads them.
+     *
+     * @param speedHistory    the speed of each test in words per minute
+     * @param accuracyHistory the accuracy of each test in percent
+     * @param speedOverTime   the speed within the latest test per interval, or an empty array
+     * @param intervalSeconds the length of each interval of the speed series in seconds
+     */
+    public synchronized void update(List<Integer> speedHistory, List<Integer> accuracyHistory, double[] speedOverTime, long intervalSeconds) {
+        // Copy the data so the lists can keep changing while the charts are drawn
+        List<Integer> speeds = new ArrayList<>(speedHistory);
+        List<Integer> accuracies = new ArrayList<>(accuracyHistory);
+        double[] speedSeries = speedOverTime.clone();
+        image = renderer().thenApplyAsync(r -> r.render(speeds, accuracies, speedSeries, intervalSeconds, WIDTH), executor);
+    }
+
+    /**
+     * Gets the image of the latest charts.
+     * If no results have been given yet, empty charts are drawn.
+     *
+     * @return a future completed with the chart image
+     */
+    public synchronized CompletableFuture<BufferedImage> getImage() {
+        if (image == null) {
+            update(List.of(), List.of(), new double[0], 1);
+        }
+        return image;
+    }
+
+    /**
+     * Gets the renderer, starting to load it in the background if this is the first use.
+     *
+     * @return a future completed with the renderer
+     */
+    private CompletableFuture<ChartRenderer> renderer() {
+        if (renderer == null) {
+            renderer = CompletableFuture.supplyAsync(ChartService::loadRenderer, executor);
+        }
+        return renderer;
+    }
+
+    /**
+     * Loads the renderer class by name and creates an instance of it.
+     *
+     * @return the renderer
+     */
+    private static ChartRenderer loadRenderer() {
+        try {
+            return (ChartRenderer) Class.forName(RENDERER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            Logger.getLogger(ChartService.class.getName()).log(Level.SEVERE, null, e);
+            throw new IllegalStateException("Chart renderer could not be loaded", e);
+        }
+    }
+}
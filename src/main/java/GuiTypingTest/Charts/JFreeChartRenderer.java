@@ -0,0 +1,72 @@
+package GuiTypingTest.Charts;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * JFreeChartRenderer draws the progress charts with JFreeChart.
+ * This is the only class that refers to JFreeChart, and it is loaded by name from
+ * {@link ChartService} so the library is not loaded until a chart is needed.
+ */
+public class JFreeChartRenderer implements ChartRenderer {
+    private static final int PROGRESS_HEIGHT = 600;
+    private static final int SPEED_HEIGHT = 300;
+
+    /**
+     * Draws the charts into an image.
+     *
+     * @param speedHistory    the speed of each test in words per minute
+     * @param accuracyHistory the accuracy of each test in percent
+     * @param speedOverTime   the speed within the latest test per interval, or an empty array
+     * @param intervalSeconds the length of each interval of the speed series in seconds
+     * @param width           the width of the image
+     * @return the image with the charts drawn on it
+     */
+    @Override
+    public BufferedImage render(List<Integer> speedHistory, List<Integer> accuracyHistory, double[] speedOverTime, long intervalSeconds, int width) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+
+        for (int i = 0; i < speedHistory.size(); i++) {
+            dataset.addValue(speedHistory.get(i), "Speed", "Test " + (i + 1));
+            dataset.addValue(accuracyHistory.get(i), "Accuracy", "Test " + (i + 1));
+        }
+
+        JFreeChart lineChart = ChartFactory.createLineChart(
+                "Typing Test Progress",
+                "Test Number",
+                "Value",
+                dataset
+        );
+
+        int height = speedOverTime.length > 0 ? PROGRESS_HEIGHT + SPEED_HEIGHT : PROGRESS_HEIGHT;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        try {
+            lineChart.draw(g2, new Rectangle(0, 0, width, PROGRESS_HEIGHT));
+
+            // Show the speed over the course of the latest test, if there is one
+            if (speedOverTime.length > 0) {
+                DefaultCategoryDataset speedDataset = new DefaultCategoryDataset();
+                for (int i = 0; i < speedOverTime.length; i++) {
+                    speedDataset.addValue(speedOverTime[i], "Net Speed", String.valueOf((i + 1) * intervalSeconds));
+                }
+
+                JFreeChart speedChart = ChartFactory.createLineChart(
+                        "Speed During Latest Test",
+                        "Second",
+                        "Words per Minute",
+                        speedDataset
+                );
+                speedChart.draw(g2, new Rectangle(0, PROGRESS_HEIGHT, width, SPEED_HEIGHT));
+            }
+        } finally {
+            g2.dispose();
+        }
+        return image;
+    }
+}
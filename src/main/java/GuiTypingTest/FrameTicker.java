@@ -0,0 +1,68 @@
+package GuiTypingTest;
+
+import javax.swing.Timer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * FrameTicker drives every animation of the GUI from one Swing timer on the event dispatch thread.
+ * Listeners are called once per frame with the same timestamp and decide for themselves whether
+ * anything they draw has changed, so a frame where nothing moved costs no painting at all, and
+ * animations never add work to the handling of a keystroke. The timer runs only while someone
+ * is listening, and Swing coalesces ticks if the event queue falls behind.
+ */
+public class FrameTicker {
+    /**
+     * Listener called on every frame.
+     */
+    public interface FrameListener {
+        /**
+         * Called on the event dispatch thread once per frame.
+         *
+         * @param nanos the time of the frame from {@link System#nanoTime()}
+         */
+        void onFrame(long nanos);
+    }
+
+    private final Timer timer;
+    private final List<FrameListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a new FrameTicker.
+     *
+     * @param framesPerSecond the number of frames per second
+     */
+    public FrameTicker(int framesPerSecond) {
+        timer = new Timer(1000 / framesPerSecond, e -> {
+            long now = System.nanoTime();
+            for (FrameListener listener : listeners) {
+                listener.onFrame(now);
+            }
+        });
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Adds a listener, starting the timer if it was idle.
+     *
+     * @param listener the listener to add
+     */
+    public void add(FrameListener listener) {
+        listeners.add(listener);
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Removes a listener, stopping the timer once nobody is listening.
+     *
+     * @param listener the listener to remove
+     */
+    public void remove(FrameListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package GuiTypingTest;
+
+import GuiTypingTest.Text.CompactCorpus;
+import GuiTypingTest.Text.CorpusIngester;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The IngestMain class is the command-line entry point for building sentence corpora.
+ * It splits a large text file, such as a book, into sentences and writes them as a
+ * compact corpus that can be chosen as a custom text file in the GUI.
+ * <p>
+ * Usage: {@code IngestMain input.txt [output.ttc] [--min=20] [--max=200]}
+ */
+public class IngestMain {
+    /**
+     * The main method runs the ingestion and prints a short summary.
+     *
+     * @param args the input file, the output file (default: the input with the .ttc extension),
+     *             and optionally the shortest and longest sentence to keep, in characters
+     */
+    public static void main(String[] args) {
+        int minLength = 20;
+        int maxLength = 200;
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--min=")) {
+                minLength = Integer.parseInt(arg.substring(6));
+            } else if (arg.startsWith("--max=")) {
+                maxLength = Integer.parseInt(arg.substring(6));
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: IngestMain input.txt [output" + CompactCorpus.EXTENSION + "] [--min=20] [--max=200]");
+            System.exit(2);
+        }
+        Path input = Paths.get(paths.get(0));
+        Path output = paths.size() > 1 ? Paths.get(paths.get(1))
+                : input.resolveSibling(input.getFileName().toString().replaceFirst("\\.[^.]*$", "") + CompactCorpus.EXTENSION);
+
+        try {
+            long start = System.nanoTime();
+            int sentences = new CorpusIngester(minLength, maxLength, Runtime.getRuntime().availableProcessors())
+                    .ingest(input, output);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Ingested " + Files.size(input) / 1024 + " KB into " + sentences + " sentences in "
+                    + millis + " ms, corpus written to " + output);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package GuiTypingTest.InputProviders;
 
+import GuiTypingTest.Metrics.Metrics;
+import GuiTypingTest.Sessions.KeystrokeListener;
+import GuiTypingTest.StartupProbe;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.function.Consumer;
 
 /**
  * GUIInputProvider is an implementation of the InputProvider interface.
@@ -11,6 +21,10 @@ public class GUIInputProvider implements InputProvider {
     private final JTextField inputField;
     private final JButton submitButton;
     private JTextArea displayArea;
+    private Consumer<String> typingAction = text -> { };
+    private KeystrokeListener keystrokeListener;
+    private final Color validBackground;
+    private volatile int displayedCount;
 
     /**
      * Constructor for GUIInputProvider.
@@ -24,6 +38,39 @@ public class GUIInputProvider implements InputProvider {
         this.submitButton = submitButton;
         // Trigger the submit button click when Enter is pressed in the input field
         this.inputField.addActionListener(e -> submitButton.doClick());
+        this.validBackground = inputField.getBackground();
+        // Pass the text to the typing action on every keystroke
+        this.inputField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                typingAction.accept(inputField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                typingAction.accept(inputField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not change the text
+            }
+        });
+        // Pass typed characters and backspaces to the keystroke listener, if one is set
+        this.inputField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                char key = e.getKeyChar();
+                if (keystrokeListener == null || key == KeyEvent.CHAR_UNDEFINED || key == '\n') {
+                    return; // submissions are recorded by the submit action
+                }
+                if (key == '\b') {
+                    keystrokeListener.onKeystroke(System.nanoTime(), (char) 0, KeystrokeListener.BACKSPACE);
+                } else if (!Character.isISOControl(key) || key == '\t') {
+                    keystrokeListener.onKeystroke(System.nanoTime(), key, KeystrokeListener.KEY);
+                }
+            }
+        });
     }
 
     /**
@@ -69,7 +116,73 @@ public class GUIInputProvider implements InputProvider {
         for (ActionListener al : submitButton.getActionListeners()) {
             submitButton.removeActionListener(al);
         }
-        // Add the new action listener
-        submitButton.addActionListener(action);
+        // Add the new action listener, recording the submitted text and the submission first,
+        // and timing how long it takes to score
+        submitButton.addActionListener(e -> {
+            long start = System.nanoTime();
+            if (keystrokeListener != null) {
+                String text = inputField.getText();
+                for (int i = 0; i < text.length(); i++) {
+                    keystrokeListener.onKeystroke(start, text.charAt(i), KeystrokeListener.SUBMITTED_CHAR);
+                }
+                keystrokeListener.onKeystroke(start, (char) 0, KeystrokeListener.SUBMIT);
+            }
+            action.actionPerformed(e);
+            Metrics.SUBMISSIONS.increment();
+            Metrics.SCORING.recordSince(start);
+        });
+    }
+
+    /**
+     * Shows the text to type in the display area.
+     *
+     * @param text the text to display
+     */
+    @Override
+    public void displayText(String text) {
+        SwingUtilities.invokeLater(() -> {
+            displayArea.setText(text);
+            displayedCount++;
+            StartupProbe.firstPrompt();
+        });
+    }
+
+    /**
+     * Gets the number of texts shown so far, so the sentence or word on screen
+     * can be found without adding work to each keystroke.
+     *
+     * @return the number of texts shown
+     */
+    public int getDisplayedCount() {
+        return displayedCount;
+    }
+
+    /**
+     * Sets the listener that receives every keystroke, for recording the session.
+     *
+     * @param keystrokeListener the listener, or null to stop recording
+     */
+    public void setKeystrokeListener(KeystrokeListener keystrokeListener) {
+        this.keystrokeListener = keystrokeListener;
+    }
+
+    /**
+     * Sets the action to be performed whenever the text in the input field changes.
+     *
+     * @param action the action to be performed on every change
+     */
+    @Override
+    public void setTypingAction(Consumer<String> action) {
+        typingAction = action;
+    }
+
+    /**
+     * Shows whether the typed text is still valid by tinting the input field.
+     *
+     * @param valid true if the typed text can still become the expected text
+     */
+    @Override
+    public void setInputValid(boolean valid) {
+        inputField.setBackground(valid ? validBackground : new Color(255, 205, 205)); // Light red when a mistake is made
     }
 }
\ No newline at end of file
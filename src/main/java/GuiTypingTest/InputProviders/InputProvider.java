@@ -1,6 +1,7 @@
 package GuiTypingTest.InputProviders;
 
 import java.awt.event.ActionListener;
+import java.util.function.Consumer;
 
 /**
  * InputProvider interface defines the methods required for providing user input.
@@ -19,4 +20,28 @@ public interface InputProvider {
      * @param action the ActionListener to be set for the submit action
      */
     void setSubmitAction(ActionListener action);
+
+    /**
+     * Shows the text the user is to type next.
+     *
+     * @param text the text to display
+     */
+    void displayText(String text);
+
+    /**
+     * Sets the action to be performed whenever the text being typed changes,
+     * before it is submitted. The action receives the current text.
+     *
+     * @param action the action to be performed on every change
+     */
+    default void setTypingAction(Consumer<String> action) {
+    }
+
+    /**
+     * Shows whether the text being typed is still a valid start of the expected text.
+     *
+     * @param valid true if the typed text can still become the expected text
+     */
+    default void setInputValid(boolean valid) {
+    }
 }
\ No newline at end of file
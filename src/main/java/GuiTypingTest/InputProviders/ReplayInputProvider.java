@@ -0,0 +1,117 @@
+package GuiTypingTest.InputProviders;
+
+import GuiTypingTest.Sessions.KeystrokeListener;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.function.Consumer;
+
+/**
+ * ReplayInputProvider is an implementation of the InputProvider interface that
+ * takes its input from recorded keystrokes instead of a user.
+ * Typed keys and backspaces edit the current input as they did when they were typed, which
+ * drives the typing action, and submissions trigger the submit action, so any tester can run on
+ * a recorded session. When the log records the submitted text, that text is what is submitted,
+ * so edits the keys alone cannot show, such as pastes or deleting a selection, are scored as they were.
+ */
+public class ReplayInputProvider implements InputProvider, KeystrokeListener {
+    private final StringBuilder input = new StringBuilder();
+    private final StringBuilder submitted = new StringBuilder();
+    private boolean submittedTextRecorded;
+    private ActionListener submitAction = e -> { };
+    private Consumer<String> typingAction = text -> { };
+    private String displayedText = "";
+
+    /**
+     * Applies a recorded keystroke to the current input.
+     *
+     * @param nanos the time of the keystroke
+     * @param key   the character typed or submitted, or 0 for backspaces and submissions
+     * @param type  the event type
+     */
+    @Override
+    public void onKeystroke(long nanos, char key, byte type) {
+        switch (type) {
+            case KEY -> {
+                input.append(key);
+                typingAction.accept(input.toString());
+            }
+            case BACKSPACE -> {
+                if (!input.isEmpty()) {
+                    input.setLength(input.length() - 1);
+                    typingAction.accept(input.toString());
+                }
+            }
+            case SUBMITTED_CHAR -> submitted.append(key);
+            case SUBMIT -> {
+                if (submittedTextRecorded) {
+                    input.setLength(0);
+                    input.append(submitted);
+                    submitted.setLength(0);
+                }
+                submitAction.actionPerformed(new ActionEvent(this, ActionEvent.ACTION_PERFORMED, "submit"));
+            }
+            default -> throw new IllegalArgumentException("Unknown keystroke type: " + type);
+        }
+    }
+
+    /**
+     * Sets whether the replayed log records the text of each submission.
+     *
+     * @param submittedTextRecorded true to submit the recorded text, false to submit the text rebuilt from the keys
+     */
+    public void setSubmittedTextRecorded(boolean submittedTextRecorded) {
+        this.submittedTextRecorded = submittedTextRecorded;
+    }
+
+    /**
+     * Gets the replayed input and clears it, as a user's input field would be cleared.
+     *
+     * @return the replayed input as a String
+     */
+    @Override
+    public String getUserInput() {
+        String text = input.toString();
+        input.setLength(0);
+        return text;
+    }
+
+    /**
+     * Sets the action to be performed when a submission is replayed.
+     *
+     * @param action the ActionListener to be set for the submit action
+     */
+    @Override
+    public void setSubmitAction(ActionListener action) {
+        submitAction = action;
+    }
+
+    /**
+     * Sets the action to be performed whenever the replayed input changes.
+     *
+     * @param action the action to be performed on every change
+     */
+    @Override
+    public void setTypingAction(Consumer<String> action) {
+        typingAction = action;
+    }
+
+    /**
+     * Remembers the text the tester would display.
+     *
+     * @param text the text to display
+     */
+    @Override
+    public void displayText(String text) {
+        displayedText = text;
+    }
+
+    /**
+     * Gets the text the tester most recently asked to display.
+     *
+     * @return the displayed text
+     */
+    public String getDisplayedText() {
+        return displayedText;
+    }
+}
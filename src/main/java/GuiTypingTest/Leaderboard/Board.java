@@ -0,0 +1,121 @@
+package GuiTypingTest.Leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One leaderboard: the best results kept in full, and a count of every result by speed.
+ * The best results live in a concurrent skip list trimmed back to its capacity after each
+ * insert, and the counts live in a {@link FenwickCounter}, so inserts from several threads
+ * never wait on each other and a rank is found in O(log n) however many results there are.
+ */
+class Board {
+    private final int capacity;
+    private final FenwickCounter speeds;
+    private final ConcurrentSkipListSet<LeaderboardEntry> top = new ConcurrentSkipListSet<>();
+    private final AtomicInteger topSize = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructs a new, empty Board.
+     *
+     * @param capacity the number of best results kept in full
+     * @param maxSpeed the highest speed counted on its own; faster results count as this speed
+     */
+    Board(int capacity, int maxSpeed) {
+        this.capacity = capacity;
+        this.speeds = new FenwickCounter(maxSpeed + 1);
+    }
+
+    /**
+     * Adds a result.
+     *
+     * @param speed       the speed in words per minute
+     * @param accuracy    the accuracy in percent
+     * @param epochMillis when the test finished
+     * @param planId      the ID of the plan the test was taken from
+     */
+    void add(int speed, int accuracy, long epochMillis, String planId) {
+        speeds.add(bucket(speed), 1);
+        addToTop(new LeaderboardEntry(speed, accuracy, epochMillis, planId, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Adds an entry to the best results, dropping the worst if there are too many.
+     * Each insert removes at most one entry, so concurrent inserts can never trim the list below its capacity.
+     *
+     * @param entry the entry
+     */
+    void addToTop(LeaderboardEntry entry) {
+        // Most results are not among the best, so check against the worst kept one before inserting
+        if (topSize.get() >= capacity) {
+            LeaderboardEntry worst = top.isEmpty() ? null : top.last();
+            if (worst != null && entry.compareTo(worst) > 0) {
+                return;
+            }
+        }
+        top.add(entry);
+        if (topSize.incrementAndGet() > capacity && top.pollLast() != null) {
+            topSize.decrementAndGet();
+        }
+    }
+
+    /**
+     * Finds the rank a speed would have: one more than the number of results that are faster.
+     *
+     * @param speed the speed in words per minute
+     * @return the rank, starting at 1
+     */
+    long rank(int speed) {
+        return speeds.countAbove(bucket(speed)) + 1;
+    }
+
+    /**
+     * Gets the number of results on the board.
+     *
+     * @return the number of results
+     */
+    long total() {
+        return speeds.total();
+    }
+
+    /**
+     * Gets the best results, best first.
+     *
+     * @return a copy of the best results
+     */
+    List<LeaderboardEntry> top() {
+        return new ArrayList<>(top);
+    }
+
+    /**
+     * Gets the speed counter, for saving and loading.
+     *
+     * @return the speed counter
+     */
+    FenwickCounter speeds() {
+        return speeds;
+    }
+
+    /**
+     * Gets the next sequence number, for entries loaded from a file.
+     *
+     * @return a sequence number unique on this board
+     */
+    long nextSequence() {
+        return sequence.getAndIncrement();
+    }
+
+    /**
+     * Gets the counter bucket of a speed.
+     *
+     * @param speed the speed
+     * @return the bucket
+     */
+    private int bucket(int speed) {
+        return Math.max(0, Math.min(speed, speeds.size() - 1));
+    }
+}
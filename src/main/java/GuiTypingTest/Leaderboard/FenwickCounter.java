@@ -0,0 +1,88 @@
+package GuiTypingTest.Leaderboard;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FenwickCounter counts values in a fixed range and answers "how many values are above this one"
+ * in O(log n) time. It is a Fenwick (binary indexed) tree over atomic counters, so any number of
+ * threads can add values at once without locking; a query running alongside an add may or may not
+ * see that add, but never sees a count that was not true at some point.
+ */
+class FenwickCounter {
+    private final AtomicLongArray tree;
+    private final int size;
+
+    /**
+     * Constructs a new FenwickCounter for values from 0 to size - 1.
+     *
+     * @param size the number of distinct values
+     */
+    FenwickCounter(int size) {
+        this.size = size;
+        this.tree = new AtomicLongArray(size + 1);
+    }
+
+    /**
+     * Gets the number of distinct values.
+     *
+     * @return the number of distinct values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds to the count of a value.
+     *
+     * @param value the value
+     * @param delta the amount to add
+     */
+    void add(int value, long delta) {
+        for (int i = value + 1; i <= size; i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+    }
+
+    /**
+     * Counts the values at or below a value.
+     *
+     * @param value the value
+     * @return the number of values from 0 to value
+     */
+    long countAtOrBelow(int value) {
+        long count = 0;
+        for (int i = Math.min(value, size - 1) + 1; i > 0; i -= i & -i) {
+            count += tree.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Counts every value.
+     *
+     * @return the total count
+     */
+    long total() {
+        return countAtOrBelow(size - 1);
+    }
+
+    /**
+     * Counts the values above a value.
+     *
+     * @param value the value
+     * @return the number of values greater than value
+     */
+    long countAbove(int value) {
+        return total() - countAtOrBelow(value);
+    }
+
+    /**
+     * Gets the count of a single value.
+     *
+     * @param value the value
+     * @return the number of times the value was added
+     */
+    long count(int value) {
+        return countAtOrBelow(value) - (value == 0 ? 0 : countAtOrBelow(value - 1));
+    }
+}
@@ -0,0 +1,311 @@
+package GuiTypingTest.Leaderboard;
+
+import GuiTypingTest.Plans.TestPlan;
+import GuiTypingTest.Result;
+import GuiTypingTest.TestMode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Leaderboard ranks results against every earlier result on this machine.
+ * Each result goes on the board for its mode (type of text, format and time limit), and a result
+ * of a plan that was entered to repeat it also goes on the board for that plan, where everyone typed
+ * exactly the same text. Every test has a fresh plan unless one is entered, so this keeps one board
+ * per shared plan rather than one per test. Boards are created on first use and can be written to
+ * from any thread.
+ * <p>
+ * The leaderboard is saved to a compact file holding, for each board, the number of results
+ * at each speed and the best results in full, followed by a CRC32 of the whole file. A file that
+ * cannot be read is moved aside to a {@code .bad} file before the leaderboard starts afresh, so
+ * its history can still be recovered.
+ */
+public class Leaderboard {
+    /**
+     * The highest speed, in words per minute, ranked on its own; faster results tie at this speed.
+     */
+    private static final int MAX_SPEED = 300;
+
+    /**
+     * The magic number at the start of the leaderboard file ("TTLB").
+     */
+    private static final int MAGIC = 0x54544C42;
+
+    /**
+     * The current format version.
+     */
+    private static final short VERSION = 1;
+
+    private final Path file;
+    private final int capacity;
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new Leaderboard, loading the saved boards if the file exists.
+     *
+     * @param file     the file the leaderboard is saved in
+     * @param capacity the number of best results kept in full on each board
+     */
+    public Leaderboard(Path file, int capacity) {
+        this.file = file;
+        this.capacity = Math.max(1, capacity);
+        if (Files.exists(file)) {
+            try {
+                load();
+            } catch (IOException e) {
+                boards.clear(); // start afresh rather than rank against half a file
+                Logger.getLogger(Leaderboard.class.getName()).log(Level.SEVERE, null, e);
+                moveAside();
+            }
+        }
+    }
+
+    /**
+     * Constructs a new Leaderboard saved in Leaderboard.dat, keeping the number of best results
+     * set by the {@code typingtester.leaderboardSize} system property (10 by default).
+     */
+    public Leaderboard() {
+        this(Paths.get(System.getProperty("user.dir") + "/Leaderboard.dat"),
+                Integer.getInteger("typingtester.leaderboardSize", 10));
+    }
+
+    /**
+     * Adds a result to the board of its mode and ranks it there, and if its plan was entered to
+     * repeat it, adds it to the board of the plan and ranks it there too.
+     *
+     * @param plan        the plan the test was taken from
+     * @param result      the result of the test
+     * @param epochMillis when the test finished
+     * @param entered     true if the plan was entered to repeat it, false for a fresh plan
+     * @return the ranks of the result, with a plan rank and total of 0 if it is not ranked on its plan
+     */
+    public Ranking submit(TestPlan plan, Result result, long epochMillis, boolean entered) {
+        String planId = plan.id();
+        Board modeBoard = board(modeKey(plan.mode()));
+        int speed = result.calculateSpeed();
+        int accuracy = result.calculateAccuracy();
+        modeBoard.add(speed, accuracy, epochMillis, planId);
+        if (!entered) {
+            return new Ranking(modeBoard.rank(speed), modeBoard.total(), 0, 0);
+        }
+        Board planBoard = board(planKey(plan));
+        planBoard.add(speed, accuracy, epochMillis, planId);
+        return new Ranking(modeBoard.rank(speed), modeBoard.total(), planBoard.rank(speed), planBoard.total());
+    }
+
+    /**
+     * Finds the rank a speed would have in a mode, without adding it.
+     *
+     * @param mode  the mode
+     * @param speed the speed in words per minute
+     * @return the rank, starting at 1
+     */
+    public long rank(TestMode mode, int speed) {
+        Board board = boards.get(modeKey(mode));
+        return board == null ? 1 : board.rank(speed);
+    }
+
+    /**
+     * Gets the best results in a mode, best first.
+     *
+     * @param mode the mode
+     * @return the best results
+     */
+    public List<LeaderboardEntry> top(TestMode mode) {
+        Board board = boards.get(modeKey(mode));
+        return board == null ? List.of() : board.top();
+    }
+
+    /**
+     * Gets the best results on a plan, best first.
+     *
+     * @param plan the plan
+     * @return the best results
+     */
+    public List<LeaderboardEntry> top(TestPlan plan) {
+        Board board = boards.get(planKey(plan));
+        return board == null ? List.of() : board.top();
+    }
+
+    /**
+     * Saves every board to the leaderboard file.
+     * The file is written in full before it replaces the old one.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "leaderboard", ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            Map<String, Board> snapshot = Map.copyOf(boards);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Board> entry : snapshot.entrySet()) {
+                writeBoard(out, entry.getKey(), entry.getValue());
+            }
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Moves a leaderboard file that cannot be read out of the way, replacing any earlier one.
+     */
+    private void moveAside() {
+        Path damaged = file.resolveSibling(file.getFileName() + ".bad");
+        try {
+            Files.move(file, damaged, StandardCopyOption.REPLACE_EXISTING);
+            Logger.getLogger(Leaderboard.class.getName()).log(Level.WARNING, "Moved the unreadable leaderboard to " + damaged);
+        } catch (IOException e) {
+            Logger.getLogger(Leaderboard.class.getName()).log(Level.SEVERE, null, e);
+        }
+    }
+
+    /**
+     * Gets a board, creating it if this is its first result.
+     *
+     * @param key the board key
+     * @return the board
+     */
+    private Board board(String key) {
+        return boards.computeIfAbsent(key, k -> new Board(capacity, MAX_SPEED));
+    }
+
+    /**
+     * Gets the key of the board of a mode.
+     *
+     * @param mode the mode
+     * @return the board key
+     */
+    private static String modeKey(TestMode mode) {
+        return "mode:" + mode.textOption() + mode.formatOption() + mode.timeOption();
+    }
+
+    /**
+     * Gets the key of the board of a plan.
+     *
+     * @param plan the plan
+     * @return the board key
+     */
+    private static String planKey(TestPlan plan) {
+        return "plan:" + plan.id();
+    }
+
+    /**
+     * Writes one board: its key, the speeds that have results with their counts, and the best results.
+     *
+     * @param out   the stream to write to
+     * @param key   the board key
+     * @param board the board
+     * @throws IOException if the board cannot be written
+     */
+    private static void writeBoard(DataOutputStream out, String key, Board board) throws IOException {
+        out.writeUTF(key);
+        FenwickCounter speeds = board.speeds();
+        int used = 0;
+        long[] counts = new long[speeds.size()];
+        for (int speed = 0; speed < counts.length; speed++) {
+            counts[speed] = speeds.count(speed);
+            if (counts[speed] > 0) {
+                used++;
+            }
+        }
+        out.writeShort(used);
+        for (int speed = 0; speed < counts.length; speed++) {
+            if (counts[speed] > 0) {
+                out.writeShort(speed);
+                out.writeLong(counts[speed]);
+            }
+        }
+        List<LeaderboardEntry> top = board.top();
+        out.writeShort(top.size());
+        for (LeaderboardEntry entry : top) {
+            out.writeShort(entry.speed());
+            out.writeByte(entry.accuracy());
+            out.writeLong(entry.epochMillis());
+            out.writeUTF(entry.planId());
+        }
+    }
+
+    /**
+     * Loads every board from the leaderboard file.
+     *
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    private void load() throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a leaderboard file: " + file);
+            }
+            // The checksum comes last, so check every value as it is read rather than trust a damaged one
+            int boardCount = in.readInt();
+            check(boardCount >= 0);
+            for (int b = 0; b < boardCount; b++) {
+                Board board = board(in.readUTF());
+                int used = in.readUnsignedShort();
+                for (int i = 0; i < used; i++) {
+                    int speed = in.readUnsignedShort();
+                    long count = in.readLong();
+                    check(speed < board.speeds().size() && count >= 0);
+                    board.speeds().add(speed, count);
+                }
+                int entries = in.readUnsignedShort();
+                for (int i = 0; i < entries; i++) {
+                    int speed = in.readUnsignedShort();
+                    int accuracy = in.readUnsignedByte();
+                    check(accuracy <= 100);
+                    board.addToTop(new LeaderboardEntry(speed, accuracy, in.readLong(), in.readUTF(), board.nextSequence()));
+                }
+            }
+            // The checksum covers everything read so far, so take it before reading the stored one
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Damaged leaderboard file: " + file);
+            }
+        }
+    }
+
+    /**
+     * Checks a value read from the leaderboard file.
+     *
+     * @param valid true if the value is in range
+     * @throws IOException if it is not
+     */
+    private void check(boolean valid) throws IOException {
+        if (!valid) {
+            throw new IOException("Damaged leaderboard file: " + file);
+        }
+    }
+
+    /**
+     * Record of where a result ranks.
+     *
+     * @param modeRank  the rank among all results in the same mode, starting at 1
+     * @param modeTotal the number of results in the same mode
+     * @param planRank  the rank among all results on the same plan, starting at 1, or 0 if not ranked on the plan
+     * @param planTotal the number of results on the same plan, or 0 if not ranked on the plan
+     */
+    public record Ranking(long modeRank, long modeTotal, long planRank, long planTotal) {
+    }
+}
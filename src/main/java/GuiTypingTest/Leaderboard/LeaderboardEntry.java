@@ -0,0 +1,34 @@
+package GuiTypingTest.Leaderboard;
+
+import java.util.Comparator;
+
+/**
+ * Record of one result on a leaderboard.
+ * Entries are ordered best first: by speed, then accuracy, then the earlier result,
+ * with the sequence number keeping otherwise equal results apart.
+ *
+ * @param speed       the speed in words per minute
+ * @param accuracy    the accuracy in percent
+ * @param epochMillis when the test finished, in milliseconds since epoch
+ * @param planId      the ID of the plan the test was taken from
+ * @param sequence    a number unique to this entry on its board
+ */
+public record LeaderboardEntry(int speed, int accuracy, long epochMillis, String planId, long sequence)
+        implements Comparable<LeaderboardEntry> {
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingInt(LeaderboardEntry::speed).reversed()
+            .thenComparing(Comparator.comparingInt(LeaderboardEntry::accuracy).reversed())
+            .thenComparingLong(LeaderboardEntry::epochMillis)
+            .thenComparingLong(LeaderboardEntry::sequence);
+
+    /**
+     * Compares entries so the best comes first.
+     *
+     * @param other the entry to compare with
+     * @return a negative number if this entry ranks higher
+     */
+    @Override
+    public int compareTo(LeaderboardEntry other) {
+        return ORDER.compare(this, other);
+    }
+}
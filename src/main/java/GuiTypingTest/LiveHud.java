@@ -0,0 +1,128 @@
+package GuiTypingTest;
+
+import GuiTypingTest.Testers.EnduranceTypingTest;
+import GuiTypingTest.Testers.RollingStats;
+import GuiTypingTest.Testers.TestProgress;
+import GuiTypingTest.Testers.TypingTester;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+/**
+ * LiveHud is the bar above a running test showing the time remaining, the speed so far,
+ * the accuracy and the current streak of correct words. An endurance test has no time remaining,
+ * so the time taken is shown instead, with the speed and accuracy over the last
+ * {@value RollingStats#WINDOW_WORDS} words rather than over the whole test.
+ * It is updated by the {@link FrameTicker}: each frame it reads the tester's latest progress
+ * snapshot and the clock, and repaints only if one of the figures shown has changed, so it
+ * repaints at most once a frame and usually far less, and never touches the keystroke path.
+ */
+@SuppressWarnings("serial") // holds the running tester, and is never serialized
+public final class LiveHud extends JComponent implements FrameTicker.FrameListener {
+    private final TypingTester typingTest;
+    private final long timeLimitNanos;
+    private final EnduranceTypingTest endurance;
+    private long tenths = -1;
+    private int speed = -1;
+    private int accuracy = -1;
+    private int streak = -1;
+
+    /**
+     * Constructs a new LiveHud.
+     *
+     * @param typingTest the test to show
+     * @param timeLimit  the time limit of the test in milliseconds, or 0 if it has none
+     */
+    public LiveHud(TypingTester typingTest, long timeLimit) {
+        this.typingTest = typingTest;
+        this.timeLimitNanos = timeLimit * 1_000_000L;
+        this.endurance = typingTest instanceof EnduranceTypingTest test ? test : null;
+        setOpaque(true);
+        setBackground(new Color(0, 100, 0)); // Dark green background
+        setForeground(Color.WHITE); // White text
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+        setFont(new JLabel().getFont().deriveFont(Font.BOLD));
+    }
+
+    /**
+     * Reads the figures for this frame and repaints if any of them changed.
+     *
+     * @param nanos the time of the frame
+     */
+    @Override
+    public void onFrame(long nanos) {
+        TestProgress progress = typingTest.getProgress();
+        long newTenths;
+        int newSpeed;
+        int newAccuracy;
+        if (endurance != null) {
+            RollingStats.Snapshot recent = endurance.getRecent();
+            newTenths = typingTest.getElapsedNanos() / 1_000_000_000L * 10; // whole seconds, as shown
+            newSpeed = recent.wordsSpeed();
+            newAccuracy = recent.wordsAccuracy();
+        } else {
+            long elapsed = Math.min(typingTest.getElapsedNanos(), timeLimitNanos);
+            newTenths = (timeLimitNanos - elapsed + 99_999_999L) / 100_000_000L; // round up, so 0.0 means the end
+            newSpeed = progress.speed(elapsed);
+            newAccuracy = progress.accuracy();
+        }
+        int newStreak = progress.streak();
+        if (newTenths != tenths || newSpeed != speed || newAccuracy != accuracy || newStreak != streak) {
+            tenths = newTenths;
+            speed = newSpeed;
+            accuracy = newAccuracy;
+            streak = newStreak;
+            repaint();
+        }
+    }
+
+    /**
+     * Gets the preferred size: the height of one line of text, and any width.
+     *
+     * @return the preferred size
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        Insets insets = getInsets();
+        return new Dimension(0, getFontMetrics(getFont()).getHeight() + insets.top + insets.bottom);
+    }
+
+    /**
+     * Paints the figures in four equal columns.
+     *
+     * @param g the graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (tenths < 0) {
+            return; // no frame yet
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(getForeground());
+        g2.setFont(getFont());
+        String[] figures = endurance != null ? new String[]{
+                String.format("Time: %d:%02d:%02d", tenths / 36000, tenths / 600 % 60, tenths / 10 % 60),
+                speed + " WPM (last " + RollingStats.WINDOW_WORDS + " words)",
+                "Accuracy: " + accuracy + "%",
+                "Streak: " + streak
+        } : new String[]{
+                String.format("Time remaining: %d.%d s", tenths / 10, tenths % 10),
+                speed + " WPM",
+                "Accuracy: " + accuracy + "%",
+                "Streak: " + streak
+        };
+        Insets insets = getInsets();
+        FontMetrics metrics = g2.getFontMetrics();
+        int column = (getWidth() - insets.left - insets.right) / figures.length;
+        int y = insets.top + metrics.getAscent();
+        for (int i = 0; i < figures.length; i++) {
+            int x = insets.left + column * i + (column - metrics.stringWidth(figures[i])) / 2;
+            g2.drawString(figures[i], x, y);
+        }
+        g2.dispose();
+    }
+}
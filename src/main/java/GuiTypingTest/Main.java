@@ -1,10 +1,12 @@
 package GuiTypingTest;
 
+import GuiTypingTest.Metrics.Metrics;
+
 import javax.swing.SwingUtilities;
 
 /**
  * The Main class is the entry point for the Typing Tester application.
- * It schedules the creation and display of the application's GUI.
+ * It starts exporting metrics if asked to, and schedules the creation and display of the application's GUI.
  */
 public class Main {
     /**
@@ -14,6 +16,8 @@ public class Main {
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        Metrics.start();
+
         // Schedule a job for the event-dispatching thread
         // Create an instance of TypingTesterGUI
         SwingUtilities.invokeLater(TypingTesterGUI::new);
@@ -0,0 +1,43 @@
+package GuiTypingTest.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter is a metric that only goes up, such as the number of submissions scored.
+ * It is a {@link LongAdder}, which spreads updates from different threads over separate cells,
+ * so counting costs about as much as incrementing a field and threads never contend for it.
+ */
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Constructs a new Counter. Counters are made by {@link MetricsRegistry#counter}.
+     */
+    Counter() {
+    }
+
+    /**
+     * Adds one to the count.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds to the count.
+     *
+     * @param amount the non-negative amount to add
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Gets the count.
+     *
+     * @return the count so far
+     */
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,115 @@
+package GuiTypingTest.Metrics;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+
+/**
+ * Metrics holds the metrics of the application and starts exporting them.
+ * The metrics are always kept, at the cost of a few uncontended additions per test, and are
+ * exported only when asked for: {@code -Dtypingtester.metricsPort=9464} serves them as Prometheus
+ * text at http://localhost:9464/metrics, and {@code -Dtypingtester.metricsFile=metrics.prom}
+ * writes them to a file every {@code typingtester.metricsIntervalSeconds} seconds, 15 by default.
+ * While they are exported, a probe event is posted to the Swing event queue every second to
+ * measure how long events wait there before they are handled.
+ */
+public final class Metrics {
+    /**
+     * The registry of every metric of the application.
+     */
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    /**
+     * The time taken to load a text provider and its corpus.
+     */
+    public static final Timer CORPUS_LOAD = REGISTRY.timer("typingtester_corpus_load_seconds",
+            "Time taken to load a text provider and its corpus.");
+
+    /**
+     * The time taken to generate text to type.
+     */
+    public static final Timer TEXT_GENERATION = REGISTRY.timer("typingtester_text_generation_seconds",
+            "Time taken to generate the text of a test, or a batch of text for an endurance test.");
+
+    /**
+     * The number of sentences and words submitted and scored.
+     */
+    public static final Counter SUBMISSIONS = REGISTRY.counter("typingtester_submissions_total",
+            "Sentences and words submitted and scored.");
+
+    /**
+     * The time taken to score a submission and show the next text.
+     */
+    public static final Timer SCORING = REGISTRY.timer("typingtester_scoring_seconds",
+            "Time taken on the event dispatch thread to score a submission and show the next text.");
+
+    /**
+     * The time events wait in the Swing event queue.
+     */
+    public static final Timer EDT_QUEUE_DELAY = REGISTRY.timer("typingtester_edt_queue_delay_seconds",
+            "Time a probe event waited in the Swing event queue before it was handled.");
+
+    /**
+     * The interval between probes of the Swing event queue in milliseconds.
+     */
+    private static final long PROBE_INTERVAL_MILLIS = 1000;
+
+    static {
+        REGISTRY.gauge("typingtester_threads", "Live threads in the JVM.",
+                () -> ManagementFactory.getThreadMXBean().getThreadCount());
+        REGISTRY.gauge("typingtester_heap_used_bytes", "Heap in use.",
+                () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        REGISTRY.gauge("typingtester_heap_committed_bytes", "Heap committed by the JVM.",
+                () -> Runtime.getRuntime().totalMemory());
+        REGISTRY.gauge("typingtester_heap_max_bytes", "Largest heap the JVM will commit.",
+                () -> Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Starts exporting the metrics as set by the system properties, if any are set.
+     */
+    public static void start() {
+        Integer port = Integer.getInteger("typingtester.metricsPort");
+        String file = System.getProperty("typingtester.metricsFile");
+        if (port == null && file == null) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            long posted = System.nanoTime();
+            SwingUtilities.invokeLater(() -> EDT_QUEUE_DELAY.recordSince(posted));
+        }, PROBE_INTERVAL_MILLIS, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        MetricsExporter exporter = new MetricsExporter(REGISTRY);
+        if (port != null) {
+            // Started from the scheduler's daemon thread, so the server's thread is a daemon too
+            scheduler.execute(() -> {
+                try {
+                    exporter.serve(port);
+                } catch (IOException e) {
+                    Logger.getLogger(Metrics.class.getName()).log(Level.SEVERE, null, e);
+                }
+            });
+        }
+        if (file != null) {
+            Path path = Paths.get(file).isAbsolute() ? Paths.get(file) : Paths.get(System.getProperty("user.dir") + "/" + file);
+            exporter.writeEvery(path, Long.getLong("typingtester.metricsIntervalSeconds", 15), scheduler);
+        }
+    }
+}
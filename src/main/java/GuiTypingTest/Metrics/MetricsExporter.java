@@ -0,0 +1,110 @@
+package GuiTypingTest.Metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+
+/**
+ * MetricsExporter makes the metrics of a registry available to monitoring outside the application,
+ * as Prometheus text served over HTTP from the loopback address, written to a file at a fixed
+ * interval for a node exporter's textfile collector to pick up, or both. The metrics are only
+ * formatted when they are asked for or written, never when they are updated.
+ */
+public class MetricsExporter {
+    /**
+     * The content type of the Prometheus text exposition format.
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private HttpServer server;
+
+    /**
+     * Constructs a new MetricsExporter.
+     *
+     * @param registry the registry to export
+     */
+    public MetricsExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Serves the metrics at /metrics on a port of the loopback address. The server's thread is
+     * a daemon only if the thread calling this is, so call it from a daemon thread for the server
+     * not to keep the application running.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void serve(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            try (exchange) {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                byte[] body = registry.toPrometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        // The server's own dispatcher thread answers the requests, which are few and quick
+        server.start();
+    }
+
+    /**
+     * Writes the metrics to a file now and then at a fixed interval. Each time the file is
+     * written in full before it replaces the last one, so a reader never sees half of it.
+     *
+     * @param file      the file to write
+     * @param seconds   the interval between writes in seconds
+     * @param scheduler the scheduler to write on
+     */
+    public void writeEvery(Path file, long seconds, ScheduledExecutorService scheduler) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                write(file);
+            } catch (IOException e) {
+                Logger.getLogger(MetricsExporter.class.getName()).log(Level.WARNING, null, e);
+            }
+        }, 0, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the metrics to a file.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "metrics", ".tmp");
+        Files.writeString(temporary, registry.toPrometheus());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops serving the metrics, if they are being served.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package GuiTypingTest.Metrics;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * MetricsRegistry holds the counters, gauges and timers of the application and writes them out
+ * in the Prometheus text format. Metrics are registered once, usually as constants, and then
+ * updated without ever going through the registry; a gauge is read only when the metrics are
+ * written, so it costs nothing in between.
+ */
+public class MetricsRegistry {
+    /**
+     * A registered metric: its name, its help text and the counter, gauge or timer holding its value.
+     *
+     * @param name   the metric name
+     * @param help   what the metric measures
+     * @param metric the {@link Counter}, {@link Timer} or {@link LongSupplier} of the metric
+     */
+    private record Entry(String name, String help, Object metric) {
+    }
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a counter.
+     *
+     * @param name the metric name, ending in _total
+     * @param help what the counter counts
+     * @return the counter
+     */
+    public Counter counter(String name, String help) {
+        Counter counter = new Counter();
+        register(name, help, counter);
+        return counter;
+    }
+
+    /**
+     * Registers a gauge, a value read whenever the metrics are written.
+     *
+     * @param name  the metric name
+     * @param help  what the gauge measures
+     * @param value reads the current value
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        register(name, help, value);
+    }
+
+    /**
+     * Registers a timer.
+     *
+     * @param name the metric name, ending in _seconds
+     * @param help what the timer times
+     * @return the timer
+     */
+    public Timer timer(String name, String help) {
+        Timer timer = new Timer();
+        register(name, help, timer);
+        return timer;
+    }
+
+    /**
+     * Adds a metric to the registry.
+     *
+     * @param name   the metric name
+     * @param help   what the metric measures
+     * @param metric the counter, gauge or timer
+     * @throws IllegalArgumentException if a metric of that name is already registered
+     */
+    private synchronized void register(String name, String help, Object metric) {
+        for (Entry entry : entries) {
+            if (entry.name().equals(name)) {
+                throw new IllegalArgumentException("Metric already registered: " + name);
+            }
+        }
+        entries.add(new Entry(name, help, metric));
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     * Timers are written as histograms in seconds.
+     *
+     * @return the metrics as text
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Entry entry : entries) {
+            out.append("# HELP ").append(entry.name()).append(' ').append(entry.help()).append('\n');
+            if (entry.metric() instanceof Counter counter) {
+                out.append("# TYPE ").append(entry.name()).append(" counter\n");
+                out.append(entry.name()).append(' ').append(counter.get()).append('\n');
+            } else if (entry.metric() instanceof LongSupplier gauge) {
+                out.append("# TYPE ").append(entry.name()).append(" gauge\n");
+                out.append(entry.name()).append(' ').append(gauge.getAsLong()).append('\n');
+            } else if (entry.metric() instanceof Timer timer) {
+                out.append("# TYPE ").append(entry.name()).append(" histogram\n");
+                long cumulative = 0;
+                for (int i = 0; i < Timer.BOUNDS.length; i++) {
+                    cumulative += timer.bucket(i);
+                    out.append(entry.name()).append("_bucket{le=\"").append(seconds(Timer.BOUNDS[i])).append("\"} ")
+                            .append(cumulative).append('\n');
+                }
+                // Read apart from the buckets, so a timing recorded in between must not make the count fall behind them
+                long count = Math.max(timer.count(), cumulative);
+                out.append(entry.name()).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+                out.append(entry.name()).append("_sum ").append(seconds(timer.totalNanos())).append('\n');
+                out.append(entry.name()).append("_count ").append(count).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Formats nanoseconds as seconds without trailing zeros.
+     *
+     * @param nanos the time in nanoseconds
+     * @return the time in seconds
+     */
+    private static String seconds(long nanos) {
+        String text = String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+        text = text.replaceAll("0+$", "");
+        return text.endsWith(".") ? text + "0" : text;
+    }
+}
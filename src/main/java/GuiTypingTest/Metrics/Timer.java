@@ -0,0 +1,85 @@
+package GuiTypingTest.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timer is a metric recording how long something took, such as scoring a submission.
+ * It keeps the number of timings, their total and how many fell under each of a fixed set of
+ * bounds, all in {@link LongAdder}s, so recording a timing never locks or allocates and is
+ * exported as a Prometheus histogram from which averages and percentiles can be worked out.
+ */
+public class Timer {
+    /**
+     * The upper bound of each histogram bucket in nanoseconds, from 100 microseconds to 10 seconds.
+     */
+    static final long[] BOUNDS = {
+            100_000L, 500_000L, 1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L,
+            100_000_000L, 500_000_000L, 1_000_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length];
+
+    /**
+     * Constructs a new Timer. Timers are made by {@link MetricsRegistry#timer}.
+     */
+    Timer() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a timing.
+     *
+     * @param nanos how long it took in nanoseconds
+     */
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (nanos <= BOUNDS[i]) {
+                buckets[i].increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the time since a start time.
+     *
+     * @param startNanos the start time from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Gets the number of timings.
+     *
+     * @return the number of timings recorded
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the total of the timings.
+     *
+     * @return the total in nanoseconds
+     */
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets the number of timings in a bucket: over the bound before it and at most its own bound.
+     *
+     * @param bucket the index of the bucket in {@link #BOUNDS}
+     * @return the number of timings in the bucket
+     */
+    long bucket(int bucket) {
+        return buckets[bucket].sum();
+    }
+}
@@ -0,0 +1,61 @@
+package GuiTypingTest.OutputProviders;
+
+import java.util.Set;
+
+/**
+ * Factory for the providers that come with the application.
+ */
+public class BuiltInProviderFactory implements TextToTypeProviderFactory {
+    /**
+     * Key of the normal sentences provider.
+     */
+    public static final String NORMAL_SENTENCES = "normal-sentences";
+
+    /**
+     * Key of the random sentences provider.
+     */
+    public static final String RANDOM_SENTENCES = "random-sentences";
+
+    /**
+     * Key of the random single words provider.
+     */
+    public static final String RANDOM_WORDS = "random-words";
+
+    /**
+     * Key of the nonsense sentences provider.
+     */
+    public static final String NONSENSE_SENTENCES = "nonsense-sentences";
+
+    /**
+     * Key of the nonsense single words provider.
+     */
+    public static final String NONSENSE_WORDS = "nonsense-words";
+
+    /**
+     * Gets the keys of the built-in providers.
+     *
+     * @return the provider keys
+     */
+    @Override
+    public Set<String> keys() {
+        return Set.of(NORMAL_SENTENCES, RANDOM_SENTENCES, RANDOM_WORDS, NONSENSE_SENTENCES, NONSENSE_WORDS);
+    }
+
+    /**
+     * Creates the built-in provider for a key.
+     *
+     * @param key the provider key
+     * @return a new provider
+     */
+    @Override
+    public TextToTypeProvider create(String key) {
+        return switch (key) {
+            case NORMAL_SENTENCES -> new NormalSentenceProvider();
+            case RANDOM_SENTENCES -> new RandomSentenceProvider();
+            case RANDOM_WORDS -> new SingleWordsProvider(0);
+            case NONSENSE_SENTENCES -> new NonsenseSentenceProvider();
+            case NONSENSE_WORDS -> new SingleWordsProvider(1);
+            default -> throw new IllegalArgumentException("Unknown provider key: " + key);
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package GuiTypingTest.OutputProviders;
+
+import GuiTypingTest.Text.Corpus;
+import GuiTypingTest.Text.SourceIndex;
+import GuiTypingTest.Text.SourceIndexer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.*;
+import java.util.zip.CRC32;
+
+/**
+ * Provides real code to type, taken from a source folder chosen by the user.
+ * The folder is indexed for snippets by {@link SourceIndexer}, and the index is saved in the
+ * CodeIndexes directory so the next time only files changed since are scanned again.
+ * Each picked snippet is read from its file on its own and given line by line, indentation and all,
+ * or when single words are wanted, as the tokens between its whitespace. Providers of lines and of
+ * tokens from the same folder share one index.
+ */
+public class CodeSnippetProvider implements TextToTypeProvider {
+    /**
+     * The number of snippets in a test of lines.
+     */
+    private static final int SNIPPETS_PER_TEST = 8;
+
+    /**
+     * The number of tokens in a test of single words.
+     */
+    private static final int WORDS_PER_TEST = 1000;
+
+    private final boolean singleWords;
+    private final SourceIndex index;
+
+    /**
+     * Constructs a new CodeSnippetProvider, indexing the folder or bringing its saved index up to date.
+     *
+     * @param directory   the source folder
+     * @param singleWords true to provide single tokens, false to provide lines of code
+     */
+    public CodeSnippetProvider(Path directory, boolean singleWords) {
+        this.singleWords = singleWords;
+        this.index = indexOf(directory);
+    }
+
+    /**
+     * Constructs a new CodeSnippetProvider from an index already built.
+     *
+     * @param index       the index of the source folder, or null if it could not be built
+     * @param singleWords true to provide single tokens, false to provide lines of code
+     */
+    private CodeSnippetProvider(SourceIndex index, boolean singleWords) {
+        this.singleWords = singleWords;
+        this.index = index;
+    }
+
+    /**
+     * Makes a provider of the same folder in another format, sharing this provider's index
+     * rather than indexing the folder again.
+     *
+     * @param singleWords true to provide single tokens, false to provide lines of code
+     * @return the provider
+     */
+    public CodeSnippetProvider withFormat(boolean singleWords) {
+        return new CodeSnippetProvider(index, singleWords);
+    }
+
+    /**
+     * Indexes a source folder or brings its saved index up to date, saving it if it changed.
+     *
+     * @param directory the source folder
+     * @return the index, or null if the folder could not be indexed
+     */
+    private static SourceIndex indexOf(Path directory) {
+        Path root = directory.toAbsolutePath().normalize();
+        Path indexFile = indexFileOf(root);
+        SourceIndex previous = null;
+        if (Files.exists(indexFile)) {
+            try {
+                previous = SourceIndex.load(indexFile, root);
+            } catch (IOException e) {
+                Logger.getLogger(CodeSnippetProvider.class.getName()).log(Level.WARNING, "Rebuilding " + indexFile, e);
+            }
+        }
+        try {
+            SourceIndex index = new SourceIndexer().index(root, previous);
+            if (previous == null || previous.version() != index.version()) {
+                index.save(indexFile);
+            }
+            return index;
+        } catch (IOException e) {
+            Logger.getLogger(CodeSnippetProvider.class.getName()).log(Level.SEVERE, null, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the lines of random snippets, or the tokens of enough of them to give the words wanted.
+     *
+     * @param random the source of randomness
+     * @return a list of lines or tokens for the user to type
+     */
+    @Override
+    public List<String> getTextToType(Random random) {
+        List<String> selection = new ArrayList<>();
+        if (index == null || index.size() == 0) {
+            return selection;
+        }
+        int wanted = singleWords ? WORDS_PER_TEST / 20 : SNIPPETS_PER_TEST;
+        for (int snippet : Corpus.sampleIndices(index.size(), wanted, random)) {
+            String code = index.get(snippet);
+            if (code == null) {
+                continue; // the file has gone since it was indexed
+            }
+            for (String line : code.split("\n")) {
+                line = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+                if (!singleWords) {
+                    selection.add(line);
+                    continue;
+                }
+                for (String token : line.trim().split("\\s+")) {
+                    if (!token.isEmpty() && selection.size() < WORDS_PER_TEST) {
+                        selection.add(token);
+                    }
+                }
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Gets the version of the index.
+     *
+     * @return the CRC32 of the index
+     */
+    @Override
+    public int corpusVersion() {
+        return index == null ? 0 : index.version();
+    }
+
+    /**
+     * Gets an estimate of the memory held by the index: two ints per snippet and a little per file.
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedSize() {
+        return index == null ? 0 : 8L * index.size() + 100L * index.fileCount();
+    }
+
+    /**
+     * Gets the file the index of a source folder is saved in, named after the folder's path.
+     *
+     * @param root the absolute path of the source folder
+     * @return the index file
+     */
+    private static Path indexFileOf(Path root) {
+        CRC32 crc = new CRC32();
+        crc.update(root.toString().getBytes(StandardCharsets.UTF_8));
+        return Paths.get(System.getProperty("user.dir") + "/CodeIndexes/" + String.format("%08x", crc.getValue()) + ".tci");
+    }
+}
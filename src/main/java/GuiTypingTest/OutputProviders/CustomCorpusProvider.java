@@ -0,0 +1,122 @@
+package GuiTypingTest.OutputProviders;
+
+import GuiTypingTest.Text.CompactCorpus;
+import GuiTypingTest.Text.Corpus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.*;
+
+/**
+ * Provides text from a file chosen by the user.
+ * Each line of the file is a sentence, or when single words are wanted,
+ * every whitespace-separated word of the file is a word to type.
+ * A compact corpus built by the ingester is memory-mapped instead of read,
+ * and only the sentences picked for a test are decoded.
+ */
+public class CustomCorpusProvider implements TextToTypeProvider {
+    /**
+     * The Lines, either sentences or single words.
+     */
+    List<String> lines;
+    private final int linesPerTest;
+    private final boolean singleWords;
+    private CompactCorpus corpus;
+    private int version;
+
+    /**
+     * Constructs a new CustomCorpusProvider.
+     * This constructor reads the user's file and stores its sentences or words in a list.
+     *
+     * @param file        the file to read
+     * @param singleWords true to provide single words, false to provide sentences
+     */
+    public CustomCorpusProvider(Path file, boolean singleWords) {
+        lines = new ArrayList<>();
+        linesPerTest = singleWords ? 1000 : 40;
+        this.singleWords = singleWords;
+
+        try {
+            if (CompactCorpus.isCompactCorpus(file)) {
+                corpus = new CompactCorpus(file);
+                version = corpus.version();
+                return;
+            }
+            List<String> fileLines = Corpus.readLines(file);
+            if (singleWords) {
+                for (String line : fileLines) {
+                    Collections.addAll(lines, line.split("\\s+"));
+                }
+            } else {
+                lines = fileLines;
+            }
+            version = Corpus.version(fileLines);
+        } catch (IOException e) {
+            Logger.getLogger(CustomCorpusProvider.class.getName()).log(Level.SEVERE, null, e);
+        }
+    }
+
+    /**
+     * Returns a list of random sentences or words from the file.
+     *
+     * @param random the source of randomness
+     * @return a list of sentences or words for the user to type
+     */
+    @Override
+    public List<String> getTextToType(Random random) {
+        if (corpus != null) {
+            return sampleCorpus(random);
+        }
+        List<String> selection = new ArrayList<>();
+        for (int index : Corpus.sampleIndices(lines.size(), linesPerTest, random)) {
+            selection.add(lines.get(index));
+        }
+        return selection;
+    }
+
+    /**
+     * Gets the version of the file.
+     *
+     * @return the CRC32 of the file's contents
+     */
+    @Override
+    public int corpusVersion() {
+        return version;
+    }
+
+    /**
+     * Picks random sentences from the compact corpus, or enough of them to give the words wanted.
+     *
+     * @param random the source of randomness
+     * @return a list of sentences or words for the user to type
+     */
+    private List<String> sampleCorpus(Random random) {
+        if (!singleWords) {
+            return corpus.sample(linesPerTest, random);
+        }
+        List<String> words = new ArrayList<>();
+        // Kept sentences have at least 20 characters, so they hold several words each
+        for (String sentence : corpus.sample(linesPerTest / 4, random)) {
+            Collections.addAll(words, sentence.split("\\s+"));
+            if (words.size() >= linesPerTest) {
+                break;
+            }
+        }
+        return new ArrayList<>(words.subList(0, Math.min(words.size(), linesPerTest)));
+    }
+
+    /**
+     * Gets an estimate of the memory held by the lines.
+     * A compact corpus is mapped outside the heap, so it counts for nothing.
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedSize() {
+        return Corpus.estimateSize(lines);
+    }
+}
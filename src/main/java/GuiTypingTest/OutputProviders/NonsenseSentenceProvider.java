@@ -1,6 +1,8 @@
 package GuiTypingTest.OutputProviders;
 
 import GuiTypingTest.RandomSentence;
+import GuiTypingTest.Text.Corpus;
+import GuiTypingTest.Text.WordDawg;
 
 import java.util.*;
 import java.nio.file.*;
@@ -13,19 +15,21 @@ import java.util.logging.*;
  */
 public class NonsenseSentenceProvider implements TextToTypeProvider {
     /**
-     * The list of words for the nonsense sentence provider.
+     * The words for the nonsense sentence provider, stored as a word graph.
      */
-    List<String> words;
+    WordDawg words;
+    private int version;
 
     /**
      * Constructs a new NonsenseSentenceProvider.
-     * This constructor reads nonsense words from a file and stores them in a list.
+     * This constructor reads nonsense words from a file and stores them in a word graph, dropping duplicates.
      */
     public NonsenseSentenceProvider() {
-        words = new ArrayList<>();
+        words = new WordDawg(List.of());
         try {
             //get a list of all words from the Nonsense.txt file
-            words = Files.readAllLines(Paths.get(System.getProperty("user.dir") + "/TextResources/NonsenseWords.txt"));
+            words = new WordDawg(Corpus.readLines(Paths.get(System.getProperty("user.dir") + "/TextResources/NonsenseWords.txt")));
+            version = Corpus.version(words.asList());
         } catch (IOException e) {
             Logger.getLogger(NonsenseSentenceProvider.class.getName()).log(Level.SEVERE, null, e);
         }
@@ -34,18 +38,39 @@ public class NonsenseSentenceProvider implements TextToTypeProvider {
     /**
      * Returns a list of 40 random sentences composed of nonsense words.
      *
+     * @param random the source of randomness
      * @return a list of 40 random sentences composed of nonsense words
      */
     @Override
-    public List<String> getTextToType() {
+    public List<String> getTextToType(Random random) {
         List<String> paragraph = new ArrayList<>(); //List of sentences to be returned
 
         //Create 40 random sentences
         for (int i = 0; i < 40; i++) {
-            String sentence = RandomSentence.createRandomSentence(words); //create a sentence of random words
+            String sentence = RandomSentence.createRandomSentence(words.asList(), random); //create a sentence of random words
             paragraph.add(sentence); //add the sentence to the list of sentences
         }
 
         return paragraph;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the version of the word list.
+     *
+     * @return the CRC32 of the words
+     */
+    @Override
+    public int corpusVersion() {
+        return version;
+    }
+
+    /**
+     * Gets an estimate of the memory held by the words.
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedSize() {
+        return words.estimatedSize();
+    }
+}
@@ -1,5 +1,7 @@
 package GuiTypingTest.OutputProviders;
 
+import GuiTypingTest.Text.Corpus;
+
 import java.util.*;
 import java.nio.file.*;
 import java.io.IOException;
@@ -14,6 +16,7 @@ public class NormalSentenceProvider implements TextToTypeProvider {
      * The Sentences.
      */
     List<String> sentences;
+    private int version;
 
     /**
      * Constructs a new NormalSentenceProvider.
@@ -25,7 +28,8 @@ public class NormalSentenceProvider implements TextToTypeProvider {
 
         try {
             //get a list of all sentences from the NormalSentences.txt file
-            sentences = Files.readAllLines(Paths.get(System.getProperty("user.dir") + "/TextResources/NormalSentences.txt"));
+            sentences = Corpus.readLines(Paths.get(System.getProperty("user.dir") + "/TextResources/NormalSentences.txt"));
+            version = Corpus.version(sentences);
         } catch (IOException e) {
             Logger.getLogger(NonsenseSentenceProvider.class.getName()).log(Level.SEVERE, null, e);
         }
@@ -34,14 +38,36 @@ public class NormalSentenceProvider implements TextToTypeProvider {
     /**
      * Returns a list of 20 random normal sentences.
      *
+     * @param random the source of randomness
      * @return a list of 20 random normal sentences
      */
     @Override
-    public List<String> getTextToType() {
-        Collections.shuffle(sentences); //shuffle the list of all sentences
+    public List<String> getTextToType(Random random) {
+        //pick 20 different sentences, leaving the corpus in file order so the same seed always picks the same ones
+        List<String> selection = new ArrayList<>();
+        for (int index : Corpus.sampleIndices(sentences.size(), 20, random)) {
+            selection.add(sentences.get(index));
+        }
+        return selection;
+    }
 
-        //return the first 20 sentences from the shuffled list
-        return sentences.subList(0, Math.min(sentences.size(), 20));
+    /**
+     * Gets the version of the sentence file.
+     *
+     * @return the CRC32 of the sentences
+     */
+    @Override
+    public int corpusVersion() {
+        return version;
     }
 
-}
\ No newline at end of file
+    /**
+     * Gets an estimate of the memory held by the sentences.
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedSize() {
+        return Corpus.estimateSize(sentences);
+    }
+}
@@ -0,0 +1,139 @@
+package GuiTypingTest.OutputProviders;
+
+import GuiTypingTest.Metrics.Metrics;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * ProviderRegistry hands out text providers by key and keeps them loaded between tests.
+ * Provider factories are discovered with {@link ServiceLoader}. Loaded providers, including
+ * those for files chosen by the user, are kept in a least-recently-used cache whose total
+ * estimated size is held under a memory budget, so running the same kind of test again
+ * does not read its text from disk again.
+ */
+public class ProviderRegistry {
+    /**
+     * The default memory budget of the cache in bytes.
+     */
+    private static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+    private final Map<String, TextToTypeProviderFactory> factories = new HashMap<>();
+    private final LinkedHashMap<String, TextToTypeProvider> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> sizes = new HashMap<>();
+    private final long budget;
+    private long cachedSize;
+
+    /**
+     * Constructs a new ProviderRegistry with the budget set by the
+     * {@code typingtester.providerCacheBytes} system property, or 64 MB.
+     */
+    public ProviderRegistry() {
+        this(Long.getLong("typingtester.providerCacheBytes", DEFAULT_BUDGET));
+    }
+
+    /**
+     * Constructs a new ProviderRegistry with the given memory budget.
+     *
+     * @param budget the memory budget of the cache in bytes
+     */
+    public ProviderRegistry(long budget) {
+        this.budget = budget;
+        for (TextToTypeProviderFactory factory : ServiceLoader.load(TextToTypeProviderFactory.class)) {
+            for (String key : factory.keys()) {
+                factories.putIfAbsent(key, factory);
+            }
+        }
+    }
+
+    /**
+     * Gets the provider for a key, creating and caching it if it is not loaded.
+     *
+     * @param key the provider key
+     * @return the provider
+     */
+    public synchronized TextToTypeProvider get(String key) {
+        TextToTypeProvider provider = cache.get(key);
+        if (provider == null) {
+            TextToTypeProviderFactory factory = factories.get(key);
+            if (factory == null) {
+                throw new IllegalArgumentException("No provider registered for key: " + key);
+            }
+            long start = System.nanoTime();
+            provider = factory.create(key);
+            Metrics.CORPUS_LOAD.recordSince(start);
+            put(key, provider);
+        }
+        return provider;
+    }
+
+    /**
+     * Gets the provider for a file chosen by the user, creating and caching it if it is not loaded.
+     *
+     * @param file        the file to read
+     * @param singleWords true to provide single words, false to provide sentences
+     * @return the provider
+     */
+    public synchronized TextToTypeProvider getCustom(Path file, boolean singleWords) {
+        String key = "file:" + (singleWords ? "words:" : "sentences:") + file.toAbsolutePath().normalize();
+        TextToTypeProvider provider = cache.get(key);
+        if (provider == null) {
+            long start = System.nanoTime();
+            provider = new CustomCorpusProvider(file, singleWords);
+            Metrics.CORPUS_LOAD.recordSince(start);
+            put(key, provider);
+        }
+        return provider;
+    }
+
+    /**
+     * Gets the provider for a source folder chosen by the user, creating and caching it if it is not loaded.
+     * If the folder is already loaded in the other format, the new provider shares its index.
+     *
+     * @param directory   the source folder
+     * @param singleWords true to provide single tokens, false to provide lines of code
+     * @return the provider
+     */
+    public synchronized TextToTypeProvider getCode(Path directory, boolean singleWords) {
+        Path root = directory.toAbsolutePath().normalize();
+        String key = "code:" + (singleWords ? "words:" : "lines:") + root;
+        TextToTypeProvider provider = cache.get(key);
+        if (provider == null) {
+            long start = System.nanoTime();
+            TextToTypeProvider other = cache.get("code:" + (singleWords ? "lines:" : "words:") + root);
+            provider = other instanceof CodeSnippetProvider code ? code.withFormat(singleWords) : new CodeSnippetProvider(root, singleWords);
+            Metrics.CORPUS_LOAD.recordSince(start);
+            put(key, provider);
+        }
+        return provider;
+    }
+
+    /**
+     * Adds a provider to the cache and evicts the least recently used providers
+     * until the cache is back within its budget. The new provider is never evicted,
+     * even if it is larger than the budget on its own.
+     *
+     * @param key      the provider key
+     * @param provider the provider
+     */
+    private void put(String key, TextToTypeProvider provider) {
+        long size = provider.estimatedSize();
+        cache.put(key, provider);
+        sizes.put(key, size);
+        cachedSize += size;
+
+        Iterator<Map.Entry<String, TextToTypeProvider>> eldest = cache.entrySet().iterator();
+        while (cachedSize > budget && eldest.hasNext()) {
+            String eldestKey = eldest.next().getKey();
+            if (eldestKey.equals(key)) {
+                break;
+            }
+            eldest.remove();
+            cachedSize -= sizes.remove(eldestKey);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package GuiTypingTest.OutputProviders;
 
 import GuiTypingTest.RandomSentence;
+import GuiTypingTest.Text.Corpus;
+import GuiTypingTest.Text.WordDawg;
 
 import java.util.*;
 import java.nio.file.*;
@@ -13,20 +15,22 @@ import java.util.logging.*;
  */
 public class RandomSentenceProvider implements TextToTypeProvider {
     /**
-     * The Words.
+     * The Words, stored as a word graph.
      */
-    List<String> words;
+    WordDawg words;
+    private int version;
 
     /**
      * Constructs a new RandomSentenceProvider.
-     * This constructor reads random words from a file and stores them in a list.
+     * This constructor reads random words from a file and stores them in a word graph, dropping duplicates.
      */
     public RandomSentenceProvider() {
-        words = new ArrayList<>();
+        words = new WordDawg(List.of());
 
         try {
             //get a list of all words from the RandomWords.txt file
-            words = Files.readAllLines(Paths.get(System.getProperty("user.dir") + "/TextResources/RandomWords.txt"));
+            words = new WordDawg(Corpus.readLines(Paths.get(System.getProperty("user.dir") + "/TextResources/RandomWords.txt")));
+            version = Corpus.version(words.asList());
         } catch (IOException e) {
             Logger.getLogger(NonsenseSentenceProvider.class.getName()).log(Level.SEVERE, null, e);
         }
@@ -35,18 +39,39 @@ public class RandomSentenceProvider implements TextToTypeProvider {
     /**
      * Returns a list of 40 random sentences.
      *
+     * @param random the source of randomness
      * @return a list of 40 random sentences
      */
     // 40 random sentences
     @Override
-    public List<String> getTextToType() {
+    public List<String> getTextToType(Random random) {
         List<String> paragraph = new ArrayList<>(); //List of sentences to be returned
 
         for (int i = 0; i < 40; i++) {
-            String sentence = RandomSentence.createRandomSentence(words); //create a sentence of random words
+            String sentence = RandomSentence.createRandomSentence(words.asList(), random); //create a sentence of random words
             paragraph.add(sentence);
         }
 
         return paragraph;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the version of the word list.
+     *
+     * @return the CRC32 of the words
+     */
+    @Override
+    public int corpusVersion() {
+        return version;
+    }
+
+    /**
+     * Gets an estimate of the memory held by the words.
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedSize() {
+        return words.estimatedSize();
+    }
+}
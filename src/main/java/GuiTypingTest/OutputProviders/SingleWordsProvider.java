@@ -1,11 +1,13 @@
 package GuiTypingTest.OutputProviders;
 
+import GuiTypingTest.Text.Corpus;
+import GuiTypingTest.Text.WordDawg;
+
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.logging.*;
 
 /**
@@ -14,30 +16,33 @@ import java.util.logging.*;
  */
 public class SingleWordsProvider implements TextToTypeProvider {
     /**
-     * The Words.
+     * The Words, stored as a word graph.
      */
-    List<String> words;
+    WordDawg words;
+    private int version;
 
 
     /**
      * Constructs a new SingleWordsProvider where int wordsType is the type of words to be provided.
+     * The words are stored in a word graph, dropping duplicates.
      * 0 for random words.
      * 1 for nonsense words.
      *
      * @param wordsType the type of words to be provided
      */
     public SingleWordsProvider(int wordsType) {
-        words = new ArrayList<>();
+        words = new WordDawg(List.of());
 
         try {
             // 0 for RandomWords.txt, 1 for NonsenseWords.txt
             if (wordsType == 0) {
                 //get a list of all words from the RandomWords.txt file
-                words = Files.readAllLines(Paths.get(System.getProperty("user.dir") + "/TextResources/RandomWords.txt"));
+                words = new WordDawg(Corpus.readLines(Paths.get(System.getProperty("user.dir") + "/TextResources/RandomWords.txt")));
             } else if (wordsType == 1) {
                 //get a list of all words from the Nonsense.txt file
-                words = Files.readAllLines(Paths.get(System.getProperty("user.dir") + "/TextResources/NonsenseWords.txt"));
+                words = new WordDawg(Corpus.readLines(Paths.get(System.getProperty("user.dir") + "/TextResources/NonsenseWords.txt")));
             }
+            version = Corpus.version(words.asList());
         } catch (IOException e) {
             Logger.getLogger(NonsenseSentenceProvider.class.getName()).log(Level.SEVERE, null, e);
         }
@@ -47,14 +52,36 @@ public class SingleWordsProvider implements TextToTypeProvider {
     /**
      * Returns a list of 1000 words for the user to type.
      *
+     * @param random the source of randomness
      * @return a list of words for the user to type
      */
     @Override
-    public List<String> getTextToType() {
-        Collections.shuffle(words); //shuffle the list of all words
+    public List<String> getTextToType(Random random) {
+        // Choose 1000 different words, or every word if there are fewer
+        List<String> selection = new ArrayList<>();
+        for (int index : Corpus.sampleIndices(words.size(), 1000, random)) {
+            selection.add(words.wordAt(index));
+        }
+        return selection;
+    }
 
-        // Return only the first 1000 words, or the entire list if it has less than 1000 words
-        return words.subList(0, Math.min(words.size(), 1000));
+    /**
+     * Gets the version of the word list.
+     *
+     * @return the CRC32 of the words
+     */
+    @Override
+    public int corpusVersion() {
+        return version;
     }
 
+    /**
+     * Gets an estimate of the memory held by the words.
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedSize() {
+        return words.estimatedSize();
+    }
 }
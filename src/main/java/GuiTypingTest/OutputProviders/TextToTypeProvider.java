@@ -1,6 +1,7 @@
 package GuiTypingTest.OutputProviders;
 
 import java.util.List;
+import java.util.Random;
 
 /**
  * The TextToTypeProvider interface defines the methods required for providing text to type.
@@ -13,5 +14,36 @@ public interface TextToTypeProvider {
      *
      * @return a list of strings representing the text to type
      */
-    List<String> getTextToType();
-}
\ No newline at end of file
+    default List<String> getTextToType() {
+        return getTextToType(new Random());
+    }
+
+    /**
+     * Gets the text to be typed by the user, drawing every random choice from the given source.
+     * The same seed and the same corpus must always give the same text, so a test can be repeated.
+     *
+     * @param random the source of randomness
+     * @return a list of strings representing the text to type
+     */
+    List<String> getTextToType(Random random);
+
+    /**
+     * Gets the version of the corpus the text is drawn from.
+     * Text generated from a seed is only the same while the corpus version is the same.
+     *
+     * @return the corpus version
+     */
+    default int corpusVersion() {
+        return 0;
+    }
+
+    /**
+     * Gets an estimate of the memory this provider holds on to, in bytes.
+     * The provider registry uses this to keep its cache within a memory budget.
+     *
+     * @return the estimated size in bytes
+     */
+    default long estimatedSize() {
+        return 0;
+    }
+}
@@ -0,0 +1,26 @@
+package GuiTypingTest.OutputProviders;
+
+import java.util.Set;
+
+/**
+ * The TextToTypeProviderFactory interface is the service interface for creating providers.
+ * Implementations are discovered with {@link java.util.ServiceLoader}, so new kinds of text
+ * can be added by listing a factory in
+ * {@code META-INF/services/GuiTypingTest.OutputProviders.TextToTypeProviderFactory}.
+ */
+public interface TextToTypeProviderFactory {
+    /**
+     * Gets the keys of the providers this factory can create.
+     *
+     * @return the provider keys
+     */
+    Set<String> keys();
+
+    /**
+     * Creates the provider for a key, loading whatever text it needs.
+     *
+     * @param key one of the keys returned by {@link #keys()}
+     * @return a new provider
+     */
+    TextToTypeProvider create(String key);
+}
@@ -0,0 +1,56 @@
+package GuiTypingTest.Plans;
+
+import GuiTypingTest.TestMode;
+
+/**
+ * A test plan fixes everything that decides the text of a test: the mode, the version of the
+ * corpus the text is drawn from, and the seed of the random choices. Two tests with the same
+ * plan have the same text, so their results can be compared.
+ * <p>
+ * A plan is shared as its ID, for example {@code 110-5a0c19f2-1f2e3d4c5b6a7980}: the text,
+ * format and time options as one digit each, then the corpus version and the seed in hexadecimal.
+ *
+ * @param mode          the test mode
+ * @param corpusVersion the version of the corpus the text is drawn from
+ * @param seed          the seed of the random choices
+ */
+public record TestPlan(TestMode mode, int corpusVersion, long seed) {
+    /**
+     * Gets the ID of the plan.
+     *
+     * @return the plan ID
+     */
+    public String id() {
+        return String.format("%d%d%d-%08x-%016x", mode.textOption(), mode.formatOption(), mode.timeOption(), corpusVersion, seed);
+    }
+
+    /**
+     * Reads a plan from its ID.
+     *
+     * @param id the plan ID
+     * @return the plan
+     * @throws IllegalArgumentException if the ID is not a valid plan ID
+     */
+    public static TestPlan parse(String id) {
+        String[] parts = id.strip().split("-");
+        if (parts.length != 3 || !parts[0].matches("\\d{3}")) {
+            throw new IllegalArgumentException("Not a plan ID: " + id);
+        }
+        try {
+            TestMode mode = new TestMode(parts[0].charAt(0) - '0', parts[0].charAt(1) - '0', parts[0].charAt(2) - '0');
+            return new TestPlan(mode, Integer.parseUnsignedInt(parts[1], 16), Long.parseUnsignedLong(parts[2], 16));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a plan ID: " + id, e);
+        }
+    }
+
+    /**
+     * Returns the plan ID.
+     *
+     * @return the plan ID
+     */
+    @Override
+    public String toString() {
+        return id();
+    }
+}
@@ -0,0 +1,272 @@
+package GuiTypingTest.Plans;
+
+import GuiTypingTest.Metrics.Metrics;
+import GuiTypingTest.OutputProviders.TextToTypeProvider;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.logging.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * TestPlanCache keeps the text of test plans on disk, one small file per plan, so a plan
+ * can be run again without generating its text. Every test has a plan, so only the most recently
+ * used plans are kept, {@code typingtester.planCacheSize} of them or 200 by default; a plan whose
+ * file has been evicted is simply generated again from its seed. Each file is laid out as:
+ * <pre>
+ * int   magic number
+ * short format version
+ * byte  text option, format option and time option
+ * byte  reserved
+ * int   corpus version
+ * long  seed
+ * int   number of lines
+ * each line as a varint byte length followed by its UTF-8 bytes
+ * int   CRC32 of everything before it
+ * </pre>
+ */
+public class TestPlanCache {
+    /**
+     * The magic number at the start of every cached plan ("TTPN").
+     */
+    private static final int MAGIC = 0x5454504E;
+
+    /**
+     * The current format version.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    private static final int HEADER_BYTES = 4 + 2 + 3 + 1 + 4 + 8 + 4;
+
+    /**
+     * The default number of plans kept.
+     */
+    private static final int DEFAULT_CAPACITY = 200;
+
+    private final Path directory;
+    private final int capacity;
+
+    /**
+     * Constructs a new TestPlanCache keeping up to a number of plans in the given directory.
+     *
+     * @param directory the directory holding the cached plans
+     * @param capacity  the most plans kept
+     */
+    public TestPlanCache(Path directory, int capacity) {
+        this.directory = directory;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Constructs a new TestPlanCache keeping plans in the TestPlans directory, as many as the
+     * {@code typingtester.planCacheSize} system property says, or 200.
+     */
+    public TestPlanCache() {
+        this(Paths.get(System.getProperty("user.dir") + "/TestPlans"), Integer.getInteger("typingtester.planCacheSize", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Gets the text of a plan, from the cache if it is there, or else by generating it
+     * from the plan's seed and caching it. The provider is only asked for when the text
+     * has to be generated. A damaged cached copy is deleted and the text generated again,
+     * since the cache only saves time.
+     *
+     * @param plan     the plan
+     * @param provider supplies the provider the plan's text is drawn from
+     * @return the text of the plan
+     * @throws IOException              if the cache cannot be read or written
+     * @throws IllegalArgumentException if the plan was made from a different version of the corpus
+     */
+    public List<String> getOrGenerate(TestPlan plan, Supplier<TextToTypeProvider> provider) throws IOException {
+        List<String> text;
+        try {
+            text = load(plan);
+        } catch (IOException e) {
+            Logger.getLogger(TestPlanCache.class.getName()).log(Level.WARNING, "Regenerating test plan " + plan.id(), e);
+            Files.deleteIfExists(fileOf(plan));
+            text = null;
+        }
+        if (text != null) {
+            // Mark the plan as recently used, so it is the last to be evicted
+            Files.setLastModifiedTime(fileOf(plan), FileTime.fromMillis(System.currentTimeMillis()));
+        } else {
+            TextToTypeProvider source = provider.get();
+            if (source.corpusVersion() != plan.corpusVersion()) {
+                throw new IllegalArgumentException("Plan " + plan.id() + " was made from a different version of the text");
+            }
+            long start = System.nanoTime();
+            text = source.getTextToType(new Random(plan.seed()));
+            Metrics.TEXT_GENERATION.recordSince(start);
+            save(plan, text);
+        }
+        return text;
+    }
+
+    /**
+     * Loads the text of a plan from the cache.
+     *
+     * @param plan the plan
+     * @return the text of the plan, or null if it is not cached
+     * @throws IOException if the cached file cannot be read or is damaged
+     */
+    public List<String> load(TestPlan plan) throws IOException {
+        Path file = fileOf(plan);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.limit() - 4);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION
+                    || buffer.getInt(buffer.limit() - 4) != (int) crc.getValue()) {
+                throw new IOException("Damaged test plan: " + file);
+            }
+            buffer.position(HEADER_BYTES - 4);
+            int count = buffer.getInt();
+            List<String> text = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[getVarInt(buffer)];
+                buffer.get(bytes);
+                text.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return text;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Damaged test plan: " + file, e);
+        }
+    }
+
+    /**
+     * Saves the text of a plan to the cache.
+     * The file is written in full before it replaces any older copy, so a crash never leaves half a plan.
+     *
+     * @param plan the plan
+     * @param text the text of the plan
+     * @throws IOException if the file cannot be written
+     */
+    public void save(TestPlan plan, List<String> text) throws IOException {
+        List<byte[]> lines = new ArrayList<>(text.size());
+        int size = HEADER_BYTES + 4;
+        for (String line : text) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            lines.add(bytes);
+            size += 5 + bytes.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putShort(VERSION)
+                .put((byte) plan.mode().textOption()).put((byte) plan.mode().formatOption())
+                .put((byte) plan.mode().timeOption()).put((byte) 0)
+                .putInt(plan.corpusVersion()).putLong(plan.seed()).putInt(lines.size());
+        for (byte[] bytes : lines) {
+            putVarInt(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+
+        Files.createDirectories(directory);
+        Path file = fileOf(plan);
+        Path temporary = Files.createTempFile(directory, plan.id(), ".tmp");
+        Files.write(temporary, Arrays.copyOf(buffer.array(), buffer.position()));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+    /**
+     * Deletes the least recently used plans until no more than the capacity are left.
+     * A plan that cannot be deleted is logged and left for the next time.
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    private void evict() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.toString().endsWith(".ttp")).toList();
+        }
+        if (files.size() <= capacity) {
+            return;
+        }
+        List<Path> oldestFirst = files.stream().sorted(Comparator.comparing(TestPlanCache::lastUsed)).toList();
+        for (Path file : oldestFirst.subList(0, files.size() - capacity)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                Logger.getLogger(TestPlanCache.class.getName()).log(Level.WARNING, null, e);
+            }
+        }
+    }
+
+    /**
+     * Gets when a cached plan was last used.
+     *
+     * @param file the cache file
+     * @return the time the plan was last written or loaded, or the epoch if it cannot be read
+     */
+    private static FileTime lastUsed(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Gets the file a plan is cached in.
+     *
+     * @param plan the plan
+     * @return the cache file
+     */
+    private Path fileOf(TestPlan plan) {
+        return directory.resolve(plan.id() + ".ttp");
+    }
+
+    /**
+     * Writes an int using 7 bits per byte, so short lines take a single byte of length.
+     *
+     * @param buffer the buffer to write to
+     * @param value  the non-negative value
+     */
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an int written by {@link #putVarInt}.
+     *
+     * @param buffer the buffer to read from
+     * @return the value
+     */
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package GuiTypingTest.Race;
+
+import GuiTypingTest.Plans.TestPlan;
+import GuiTypingTest.Sessions.SessionLogReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.*;
+import java.util.stream.Stream;
+
+/**
+ * Class to find the ghosts to race against: the fastest finished earlier runs of the same plan,
+ * read from the recorded sessions. The first ghost is the best run on record, and the rest are the
+ * runs that follow it on the plan's leaderboard.
+ * <p>
+ * Only the header and trailer of each log are read to pick out the runs, and only the logs of the
+ * chosen runs are read in full, one at a time. The search runs in the background, so a race can
+ * start while the logs are read and the ghosts join it when they are found.
+ */
+public class GhostLibrary {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ghost-library");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private GhostLibrary() {
+    }
+
+    /**
+     * Starts finding the fastest earlier runs of a plan in the SessionLogs directory in the background.
+     *
+     * @param plan  the plan being raced
+     * @param count the most ghosts wanted
+     * @return a future completed with the ghosts, fastest first
+     */
+    public static CompletableFuture<List<GhostTrack>> findLater(TestPlan plan, int count) {
+        return CompletableFuture.supplyAsync(() -> find(plan, count), EXECUTOR);
+    }
+
+    /**
+     * Finds the fastest earlier runs of a plan in the SessionLogs directory.
+     *
+     * @param plan  the plan being raced
+     * @param count the most ghosts wanted
+     * @return the ghosts, fastest first
+     */
+    public static List<GhostTrack> find(TestPlan plan, int count) {
+        return find(Paths.get(System.getProperty("user.dir") + "/SessionLogs"), plan, count);
+    }
+
+    /**
+     * Finds the fastest earlier runs of a plan.
+     *
+     * @param directory the directory of recorded sessions
+     * @param plan      the plan being raced
+     * @param count     the most ghosts wanted
+     * @return the ghosts, fastest first
+     */
+    public static List<GhostTrack> find(Path directory, TestPlan plan, int count) {
+        List<GhostTrack> ghosts = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return ghosts;
+        }
+        List<SessionLogReader.Summary> runs;
+        try (Stream<Path> files = Files.list(directory)) {
+            runs = files.filter(file -> file.toString().endsWith(".ttk"))
+                    .map(GhostLibrary::summarise)
+                    .filter(run -> run != null && plan.equals(run.plan()) && run.result() != null)
+                    .sorted(Comparator.comparingInt((SessionLogReader.Summary run) -> run.result().calculateSpeed()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            Logger.getLogger(GhostLibrary.class.getName()).log(Level.SEVERE, null, e);
+            return ghosts;
+        }
+        // Read the fastest runs in full until there are enough, passing over any that turn out damaged
+        for (SessionLogReader.Summary run : runs) {
+            if (ghosts.size() == count) {
+                break;
+            }
+            try {
+                SessionLogReader log = new SessionLogReader(run.file());
+                if (log.getResult() != null) {
+                    ghosts.add(GhostTrack.of(log));
+                }
+            } catch (IOException e) {
+                Logger.getLogger(GhostLibrary.class.getName()).log(Level.WARNING, null, e);
+            }
+        }
+        return ghosts;
+    }
+
+    /**
+     * Reads the plan and result of one recorded session.
+     *
+     * @param file the log file
+     * @return the summary of the log, or null if it cannot be read
+     */
+    private static SessionLogReader.Summary summarise(Path file) {
+        try {
+            return SessionLogReader.summarise(file);
+        } catch (IOException e) {
+            return null; // not a session log, or one cut short
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package GuiTypingTest.Race;
+
+import GuiTypingTest.FrameTicker;
+
+import javax.swing.*;
+import javax.swing.plaf.LayerUI;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * GhostOverlay draws the ghosts of earlier runs over the text to type.
+ * A ghost on the same sentence or word as the user is drawn as a coloured cursor at its
+ * interpolated position; a ghost elsewhere is listed in the corner with how far ahead or behind it is.
+ * Positions are worked out once per frame from the ghosts' recorded timings, and the layer is
+ * repainted only when something visible moved, so typing never waits on the ghosts however many there are.
+ * The ghosts can be given after the race has started, since they are found in the background.
+ */
+@SuppressWarnings("serial") // holds ghost tracks and a live supplier, and is never serialized
+public class GhostOverlay extends LayerUI<JTextArea> implements FrameTicker.FrameListener {
+    /**
+     * The colours of the ghosts, in order.
+     */
+    private static final Color[] COLORS = {new Color(30, 110, 220), new Color(230, 120, 20), new Color(140, 60, 180)};
+
+    private final IntSupplier userItem;
+    private List<GhostTrack> ghosts = List.of();
+    private int[] items = new int[0];
+    private double[] offsets = new double[0];
+    private long startNanos = -1;
+    private JLayer<JTextArea> layer;
+
+    /**
+     * Constructs a new GhostOverlay with no ghosts yet.
+     *
+     * @param userItem supplies the index of the sentence or word the user is on
+     */
+    public GhostOverlay(IntSupplier userItem) {
+        this.userItem = userItem;
+    }
+
+    /**
+     * Sets the ghosts to draw. Called on the event dispatch thread; ghosts given after the race
+     * has started join it where their runs had got to.
+     *
+     * @param ghosts the ghosts to draw
+     */
+    public void setGhosts(List<GhostTrack> ghosts) {
+        this.ghosts = List.copyOf(ghosts);
+        this.items = new int[ghosts.size()];
+        this.offsets = new double[ghosts.size()];
+        if (layer != null) {
+            layer.repaint();
+        }
+    }
+
+    /**
+     * Wraps the display area in a layer the ghosts are drawn on.
+     *
+     * @param displayArea the display area showing the text to type
+     * @return the layer to add in place of the display area
+     */
+    public JLayer<JTextArea> wrap(JTextArea displayArea) {
+        layer = new JLayer<>(displayArea, this);
+        return layer;
+    }
+
+    /**
+     * Starts the race now.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Moves the ghosts to their positions at this frame and repaints if any of them moved
+     * by at least a tenth of a character.
+     *
+     * @param nanos the time of the frame
+     */
+    @Override
+    public void onFrame(long nanos) {
+        if (startNanos < 0 || layer == null) {
+            return;
+        }
+        boolean moved = false;
+        for (int i = 0; i < ghosts.size(); i++) {
+            long elapsed = nanos - startNanos;
+            int item = ghosts.get(i).itemAt(elapsed);
+            double offset = ghosts.get(i).offsetAt(elapsed);
+            if (item != items[i] || Math.abs(offset - offsets[i]) >= 0.1) {
+                items[i] = item;
+                offsets[i] = offset;
+                moved = true;
+            }
+        }
+        if (moved) {
+            layer.repaint();
+        }
+    }
+
+    /**
+     * Paints the display area, then the ghosts over it.
+     *
+     * @param g the graphics to paint with
+     * @param c the layer being painted
+     */
+    @Override
+    public void paint(Graphics g, JComponent c) {
+        super.paint(g, c);
+        if (startNanos < 0) {
+            return;
+        }
+        JTextArea area = layer.getView();
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(area.getFont().deriveFont(Font.BOLD, area.getFont().getSize2D() * 0.75f));
+        int user = userItem.getAsInt();
+        int listed = 0;
+        for (int i = 0; i < ghosts.size(); i++) {
+            g2.setColor(COLORS[i % COLORS.length]);
+            String label = ghosts.get(i).getLabel();
+            if (items[i] == user) {
+                Rectangle2D caret = caretAt(area, offsets[i]);
+                if (caret != null) {
+                    int x = (int) caret.getX();
+                    g2.fillRect(x - 1, (int) caret.getY(), 2, (int) caret.getHeight());
+                    g2.drawString(label, x + 3, (int) (caret.getY() + caret.getHeight() + g2.getFontMetrics().getAscent()));
+                }
+            } else {
+                int gap = items[i] - user;
+                String text = label + (gap > 0 ? ": " + gap + " ahead" : ": " + -gap + " behind");
+                int width = g2.getFontMetrics().stringWidth(text);
+                g2.drawString(text, c.getWidth() - width - 10, 15 + listed++ * g2.getFontMetrics().getHeight());
+            }
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Finds where a cursor a fractional number of characters into the text is drawn.
+     *
+     * @param area   the display area
+     * @param offset the number of characters, with a fraction
+     * @return the cursor rectangle, or null if the text is not laid out yet
+     */
+    private static Rectangle2D caretAt(JTextArea area, double offset) {
+        int length = area.getDocument().getLength();
+        int whole = (int) Math.min(Math.floor(offset), length);
+        try {
+            Rectangle2D from = area.modelToView2D(whole);
+            if (from == null || whole >= length) {
+                return from;
+            }
+            Rectangle2D to = area.modelToView2D(whole + 1);
+            if (to == null || to.getY() != from.getY()) {
+                return from; // do not glide across a line break
+            }
+            double x = from.getX() + (to.getX() - from.getX()) * (offset - whole);
+            return new Rectangle2D.Double(x, from.getY(), 0, from.getHeight());
+        } catch (BadLocationException e) {
+            return null;
+        }
+    }
+}
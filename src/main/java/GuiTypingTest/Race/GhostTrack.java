@@ -0,0 +1,144 @@
+package GuiTypingTest.Race;
+
+import GuiTypingTest.Result;
+import GuiTypingTest.Sessions.KeystrokeListener;
+import GuiTypingTest.Sessions.SessionLogReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * GhostTrack is the path of an earlier run through the text of a plan: after each recorded
+ * keystroke, which sentence or word the typist was on and how far into it they were.
+ * Positions between keystrokes are interpolated, so a ghost's cursor glides rather than jumps.
+ */
+public class GhostTrack {
+    private final String label;
+    private final long[] times;
+    private final int[] items;
+    private final int[] offsets;
+
+    /**
+     * Constructs a new GhostTrack from the positions after each keystroke.
+     *
+     * @param label   the label drawn next to the ghost
+     * @param times   the time of each keystroke in nanoseconds since the run started, in order
+     * @param items   the index of the sentence or word after each keystroke
+     * @param offsets the number of characters typed into it after each keystroke
+     */
+    GhostTrack(String label, long[] times, int[] items, int[] offsets) {
+        this.label = label;
+        this.times = times;
+        this.items = items;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds the track of a recorded session.
+     *
+     * @param log the recorded session
+     * @return the track
+     * @throws IOException if the log is damaged
+     */
+    public static GhostTrack of(SessionLogReader log) throws IOException {
+        Builder builder = new Builder();
+        log.forEachEvent(builder);
+        Result result = log.getResult();
+        String label = result == null ? "Ghost" : result.calculateSpeed() + " WPM";
+        return new GhostTrack(label, Arrays.copyOf(builder.times, builder.count),
+                Arrays.copyOf(builder.items, builder.count), Arrays.copyOf(builder.offsets, builder.count));
+    }
+
+    /**
+     * Gets the label drawn next to the ghost.
+     *
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the sentence or word the ghost is on at a moment of the run.
+     *
+     * @param nanos the time since the run started
+     * @return the index of the sentence or word
+     */
+    public int itemAt(long nanos) {
+        int event = eventAt(nanos);
+        return event < 0 ? 0 : items[event];
+    }
+
+    /**
+     * Gets how far into its sentence or word the ghost is at a moment of the run,
+     * moving smoothly from one keystroke to the next.
+     *
+     * @param nanos the time since the run started
+     * @return the number of characters typed, with a fraction for the keystroke in progress
+     */
+    public double offsetAt(long nanos) {
+        int event = eventAt(nanos);
+        int next = event + 1;
+        if (next >= times.length || (event >= 0 && items[next] != items[event])) {
+            return event < 0 ? 0 : offsets[event];
+        }
+        long from = event < 0 ? 0 : times[event];
+        int start = event < 0 ? 0 : offsets[event];
+        double fraction = (double) (nanos - from) / Math.max(1, times[next] - from);
+        return start + (offsets[next] - start) * Math.min(1, fraction);
+    }
+
+    /**
+     * Finds the last keystroke at or before a moment of the run.
+     *
+     * @param nanos the time since the run started
+     * @return the index of the keystroke, or -1 if the run had not started typing
+     */
+    private int eventAt(long nanos) {
+        int index = Arrays.binarySearch(times, nanos);
+        if (index < 0) {
+            index = -index - 2; // the keystroke before the insertion point
+        } else {
+            while (index + 1 < times.length && times[index + 1] == nanos) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Follows the recorded keystrokes to find where the typist was after each one.
+     */
+    private static final class Builder implements KeystrokeListener {
+        private long[] times = new long[1024];
+        private int[] items = new int[1024];
+        private int[] offsets = new int[1024];
+        private int count;
+        private int item;
+        private int offset;
+
+        @Override
+        public void onKeystroke(long nanos, char key, byte type) {
+            switch (type) {
+                case KEY -> offset++;
+                case BACKSPACE -> offset = Math.max(0, offset - 1);
+                case SUBMITTED_CHAR -> {
+                    return; // the text of a submission, not a movement of the typist
+                }
+                default -> {
+                    item++;
+                    offset = 0;
+                }
+            }
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                items = Arrays.copyOf(items, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            times[count] = nanos;
+            items[count] = item;
+            offsets[count] = offset;
+            count++;
+        }
+    }
+}
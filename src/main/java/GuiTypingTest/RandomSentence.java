@@ -15,16 +15,29 @@ public class RandomSentence {
      * @return a random sentence created from the words list
      */
     public static String createRandomSentence(List<String> words) {
+        return createRandomSentence(words, new Random());
+    }
+
+    /**
+     * Method to create a random sentence from a list of words, drawing every choice from the given source.
+     * The same seed always gives the same sentence.
+     *
+     * @param words the list of words to create the sentence from
+     * @param rand  the source of randomness
+     * @return a random sentence created from the words list
+     */
+    public static String createRandomSentence(List<String> words, Random rand) {
         StringBuilder sentence = new StringBuilder();
 
-        Random rand = new Random();
         int numWordsInSentence = rand.nextInt(5) + 5; //to vary sentence length
 
         for (int i = 0; i < numWordsInSentence; i++) {
             int index = rand.nextInt(words.size()); //choose a random word from the list of all words
 
             if (i == 0) {
-                sentence.append(words.get(index).substring(0, 1).toUpperCase()).append(words.get(index).substring(1)).append(" "); //capitalize the first word
+                String word = words.get(index);
+                int firstLength = Character.charCount(word.codePointAt(0));
+                sentence.appendCodePoint(Character.toTitleCase(word.codePointAt(0))).append(word.substring(firstLength)).append(" "); //capitalize the first letter, which may be outside the BMP
             } else if (i < numWordsInSentence - 1) {
                 sentence.append(words.get(index)).append(" "); //add the word to the sentence
             } else {
@@ -1,22 +1,97 @@
 package GuiTypingTest;
 
+import java.util.Arrays;
+
 /**
  * Record to store the result of a typing test.
- * It includes the test time, the number of correct words, and the total number of words.
+ * It includes the test time, the number of correct words, and the total number of words,
+ * along with the precise duration, character counts and a per-second throughput series
+ * so the speed can be shown over the course of the test.
  *
- * @param testTime     the time taken for the test
+ * @param testTime     the time taken for the test in milliseconds
  * @param correctWords the number of words typed correctly
  * @param totalWords   the total number of words typed
+ * @param testNanos    the time taken for the test in nanoseconds
+ * @param correctChars the number of characters typed correctly, including word separators
+ * @param typedChars   the total number of characters typed, including word separators
+ * @param throughput   the number of correct characters submitted in each second of the test,
+ *                     or in each interval of {@link #bucketNanos()} for very long tests;
+ *                     the array is copied in and out, so a result never changes
  */
-public record Result(long testTime, int correctWords, int totalWords) {
+public record Result(long testTime, int correctWords, int totalWords,
+                     long testNanos, int correctChars, int typedChars, int[] throughput) {
+    /**
+     * The number of characters counted as one word for gross and net speed.
+     */
+    public static final int CHARS_PER_WORD = 5;
+
+    /**
+     * The length of one throughput bucket in nanoseconds.
+     */
+    public static final long BUCKET_NANOS = 1_000_000_000L;
+
+    /**
+     * The most throughput buckets a result has. Longer tests have wider buckets,
+     * doubling in length until the whole test fits.
+     */
+    public static final int MAX_BUCKETS = 3600;
+
+    /**
+     * Compact constructor copying the throughput series, so the caller cannot change it afterwards.
+     */
+    public Result {
+        throughput = throughput.clone();
+    }
+
+    /**
+     * Constructs a Result with only word counts, with no character or throughput data.
+     *
+     * @param testTime     the time taken for the test in milliseconds
+     * @param correctWords the number of words typed correctly
+     * @param totalWords   the total number of words typed
+     */
+    public Result(long testTime, int correctWords, int totalWords) {
+        this(testTime, correctWords, totalWords, testTime * 1_000_000L, 0, 0, new int[0]);
+    }
+
+    /**
+     * Method to get the throughput series.
+     *
+     * @return a copy of the number of correct characters submitted in each throughput bucket
+     */
+    @Override
+    public int[] throughput() {
+        return throughput.clone();
+    }
+
     /**
      * Method to calculate the speed of the user as words per minute.
      *
      * @return the speed of the user in words per minute
      */
     public int calculateSpeed() {
-        int seconds = (int) Math.floor((double) testTime / 1000);
-        return (int) ((double) correctWords / seconds * 60);
+        double minutes = minutes();
+        return minutes > 0 ? (int) (correctWords / minutes) : 0;
+    }
+
+    /**
+     * Method to calculate the gross speed, counting every typed character.
+     *
+     * @return the gross speed in words per minute
+     */
+    public double calculateGrossSpeed() {
+        double minutes = minutes();
+        return minutes > 0 ? (double) typedChars / CHARS_PER_WORD / minutes : 0;
+    }
+
+    /**
+     * Method to calculate the net speed, counting only correctly typed characters.
+     *
+     * @return the net speed in words per minute
+     */
+    public double calculateNetSpeed() {
+        double minutes = minutes();
+        return minutes > 0 ? (double) correctChars / CHARS_PER_WORD / minutes : 0;
     }
 
     /**
@@ -25,7 +100,98 @@ public record Result(long testTime, int correctWords, int totalWords) {
      * @return the accuracy of the user in percentage
      */
     public int calculateAccuracy() {
-        return (int) ((double) correctWords / totalWords * 100);
+        return totalWords > 0 ? (int) ((double) correctWords / totalWords * 100) : 0;
+    }
+
+    /**
+     * Method to get the length of the throughput buckets of this result: a second,
+     * doubled as many times as needed to fit the test into {@link #MAX_BUCKETS} buckets.
+     *
+     * @return the length of one throughput bucket in nanoseconds
+     */
+    public long bucketNanos() {
+        return bucketNanos(testNanos);
+    }
+
+    /**
+     * Method to get the length of the throughput buckets of a test of the given length.
+     *
+     * @param testNanos the length of the test in nanoseconds
+     * @return the length of one throughput bucket in nanoseconds
+     */
+    public static long bucketNanos(long testNanos) {
+        long bucketNanos = BUCKET_NANOS;
+        while (testNanos / bucketNanos >= MAX_BUCKETS) {
+            bucketNanos *= 2;
+        }
+        return bucketNanos;
+    }
+
+    /**
+     * Method to calculate the net speed within each bucket of the test, usually a second.
+     * The last bucket is usually shorter than the others, so it is scaled by its real length;
+     * if it is shorter than half a bucket, a submission landing in it would show as a spike,
+     * so it is merged into the bucket before it instead.
+     *
+     * @return the net speed in words per minute for each throughput bucket
+     */
+    public double[] calculateSpeedOverTime() {
+        long width = bucketNanos();
+        int buckets = throughput.length;
+        long lastNanos = buckets == 0 ? 0 : testNanos - (buckets - 1) * width;
+        boolean mergeLast = buckets > 1 && lastNanos < width / 2;
+        double[] speeds = new double[mergeLast ? buckets - 1 : buckets];
+        for (int i = 0; i < speeds.length; i++) {
+            long bucketNanos = Math.min(width, testNanos - i * width);
+            int chars = throughput[i];
+            if (mergeLast && i == speeds.length - 1) {
+                bucketNanos = width + Math.max(lastNanos, 0);
+                chars += throughput[buckets - 1];
+            }
+            double bucketMinutes = Math.max(bucketNanos, 1) / 60_000_000_000.0;
+            speeds[i] = (double) chars / CHARS_PER_WORD / bucketMinutes;
+        }
+        return speeds;
+    }
+
+    /**
+     * Method to get the precise duration of the test in minutes.
+     *
+     * @return the duration in minutes
+     */
+    private double minutes() {
+        return testNanos / 60_000_000_000.0;
+    }
+
+    /**
+     * Method to compare results by value, including the contents of the throughput series.
+     *
+     * @param o the object to compare with
+     * @return true if the object is a result with the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Result other
+                && testTime == other.testTime && correctWords == other.correctWords
+                && totalWords == other.totalWords && testNanos == other.testNanos
+                && correctChars == other.correctChars && typedChars == other.typedChars
+                && Arrays.equals(throughput, other.throughput);
+    }
+
+    /**
+     * Method to calculate a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = Long.hashCode(testTime);
+        hash = 31 * hash + correctWords;
+        hash = 31 * hash + totalWords;
+        hash = 31 * hash + Long.hashCode(testNanos);
+        hash = 31 * hash + correctChars;
+        hash = 31 * hash + typedChars;
+        return 31 * hash + Arrays.hashCode(throughput);
     }
 
     /**
@@ -43,6 +209,8 @@ public record Result(long testTime, int correctWords, int totalWords) {
                 "Total Words: " + totalWords + "\n" +
                 "Correct Words: " + correctWords + "\n" +
                 "Speed: " + speed + " words per minute\n" +
+                "Gross Speed: " + Math.round(calculateGrossSpeed()) + " words per minute\n" +
+                "Net Speed: " + Math.round(calculateNetSpeed()) + " words per minute\n" +
                 "Accuracy: " + accuracy + "%\n";
     }
-}
\ No newline at end of file
+}
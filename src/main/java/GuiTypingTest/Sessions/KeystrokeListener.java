@@ -0,0 +1,40 @@
+package GuiTypingTest.Sessions;
+
+/**
+ * The KeystrokeListener interface receives the keystrokes of a typing session, one at a time.
+ * Keystrokes are passed as primitives so that recording and replaying millions of them
+ * creates no event objects.
+ */
+public interface KeystrokeListener {
+    /**
+     * Event type of a typed character.
+     */
+    byte KEY = 0;
+
+    /**
+     * Event type of a backspace, which removes the last typed character.
+     */
+    byte BACKSPACE = 1;
+
+    /**
+     * Event type of a submission of the typed text.
+     */
+    byte SUBMIT = 2;
+
+    /**
+     * Event type of one character of the text as it stood when it was submitted. The whole text
+     * is recorded this way just before each submission, so a replay scores exactly what was
+     * submitted, however it was edited.
+     */
+    byte SUBMITTED_CHAR = 3;
+
+    /**
+     * Called for each keystroke.
+     *
+     * @param nanos the time of the keystroke in nanoseconds; when recording this is
+     *              {@link System#nanoTime()}, when reading a log it is the time since the session started
+     * @param key   the character typed or submitted, or 0 for backspaces and submissions
+     * @param type  the event type, one of {@link #KEY}, {@link #BACKSPACE}, {@link #SUBMIT} or {@link #SUBMITTED_CHAR}
+     */
+    void onKeystroke(long nanos, char key, byte type);
+}
@@ -0,0 +1,81 @@
+package GuiTypingTest.Sessions;
+
+import GuiTypingTest.Testers.TestClock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ReplayClock is a virtual clock for replaying recorded sessions.
+ * Time only moves when {@link #advanceTo(long)} is called, and scheduled tasks run
+ * on the calling thread as soon as their time is reached, so a replay gives the same
+ * result every time and runs as fast as the events can be processed.
+ */
+public class ReplayClock implements TestClock {
+    private final List<ScheduledTask> tasks = new ArrayList<>();
+    private long now;
+
+    /**
+     * Gets the current virtual time.
+     *
+     * @return the current time in nanoseconds since the replay started
+     */
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Schedules a task to run once the virtual time has advanced by the delay.
+     *
+     * @param task        the task to run
+     * @param delayMillis the delay in milliseconds
+     */
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        tasks.add(new ScheduledTask(now + delayMillis * 1_000_000L, task));
+        tasks.sort(Comparator.comparingLong(ScheduledTask::due));
+    }
+
+    /**
+     * Advances the virtual time, running every task that falls due on the way at its own due time.
+     *
+     * @param nanos the new time in nanoseconds; times earlier than the current time are ignored
+     */
+    public void advanceTo(long nanos) {
+        while (!tasks.isEmpty() && tasks.get(0).due() <= nanos) {
+            ScheduledTask task = tasks.remove(0);
+            now = Math.max(now, task.due());
+            task.task().run();
+        }
+        now = Math.max(now, nanos);
+    }
+
+    /**
+     * Advances the virtual time to the last scheduled task, running every pending task.
+     */
+    public void runPending() {
+        while (!tasks.isEmpty()) {
+            advanceTo(tasks.get(tasks.size() - 1).due());
+        }
+    }
+
+    /**
+     * Checks whether any scheduled task has not run yet.
+     *
+     * @return true if a task is pending
+     */
+    public boolean hasPending() {
+        return !tasks.isEmpty();
+    }
+
+    /**
+     * A task waiting for its due time.
+     *
+     * @param due  the virtual time the task is due, in nanoseconds
+     * @param task the task to run
+     */
+    private record ScheduledTask(long due, Runnable task) {
+    }
+}
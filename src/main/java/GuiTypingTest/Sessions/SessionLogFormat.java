@@ -0,0 +1,114 @@
+package GuiTypingTest.Sessions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and encoding helpers shared by the session log writer and reader.
+ * <p>
+ * A session log is a header followed by blocks of events and an optional result trailer.
+ * The header holds the magic number and format version, the text, format and time options,
+ * a flag saying whether the test came from a plan, the wall-clock start time, and the plan's
+ * corpus version and seed. Version 1 logs have a shorter header holding a mode index in place
+ * of the options, and no plan. From version 3 every submission is preceded by the submitted
+ * text, one {@link KeystrokeListener#SUBMITTED_CHAR} event per character; version 2 logs have
+ * the same header but only the typed keys. Each block holds up to {@link #BLOCK_EVENTS} events stored column by column:
+ * <pre>
+ * int   event count
+ * int   payload length
+ * int   offset of the key column in the payload
+ * int   offset of the type column in the payload
+ * long  time of the first event, in nanoseconds since the session started
+ * int   CRC32 of the payload
+ * bytes payload: time deltas as varints, keys as varints, one type byte per event
+ * </pre>
+ * The trailer starts with an event count of -1 and holds the result of the test.
+ */
+final class SessionLogFormat {
+    /**
+     * The magic number at the start of every session log ("TTKL").
+     */
+    static final int MAGIC = 0x54544B4C;
+
+    /**
+     * The current format version.
+     */
+    static final short VERSION = 3;
+
+    /**
+     * The first format version that records the submitted text.
+     */
+    static final short SUBMITTED_TEXT_VERSION = 3;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    static final int HEADER_BYTES = 4 + 2 + 3 + 1 + 2 + 8 + 4 + 8;
+
+    /**
+     * The size of the file header of version 1 logs in bytes.
+     */
+    static final int V1_HEADER_BYTES = 4 + 2 + 2 + 8;
+
+    /**
+     * The header flag set when the test came from a plan.
+     */
+    static final byte HAS_PLAN = 1;
+
+    /**
+     * The size of a block header in bytes.
+     */
+    static final int BLOCK_HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 4;
+
+    /**
+     * The size of the result trailer in bytes, including its marker.
+     */
+    static final int TRAILER_BYTES = 4 + 8 + 4 + 4 + 4 + 4;
+
+    /**
+     * The marker that replaces the event count at the start of the trailer.
+     */
+    static final int TRAILER_MARKER = -1;
+
+    /**
+     * The largest number of events in one block.
+     */
+    static final int BLOCK_EVENTS = 4096;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SessionLogFormat() {
+    }
+
+    /**
+     * Writes an unsigned variable-length integer, seven bits per byte.
+     *
+     * @param buffer the buffer to write to
+     * @param value  the non-negative value
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer, advancing the buffer position.
+     *
+     * @param buffer the buffer to read from
+     * @return the value
+     */
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,326 @@
+package GuiTypingTest.Sessions;
+
+import GuiTypingTest.Plans.TestPlan;
+import GuiTypingTest.Result;
+import GuiTypingTest.TestMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static GuiTypingTest.Sessions.SessionLogFormat.*;
+
+/**
+ * SessionLogReader reads a session log written by {@link SessionLogWriter}.
+ * A large log, such as one from a long endurance test, is memory-mapped and its events are
+ * decoded straight from the mapping, so it is never copied onto the heap and the operating system
+ * pages it in as it is read. Most logs are a few kilobytes, and those are read onto the heap, since
+ * a mapping is only released when the garbage collector gets to it and a process may hold only so
+ * many at once. Blocks can be read on their own, which lets several threads work through one log at
+ * the same time. When only the plan and result of a log are wanted, {@link #summarise} reads just its
+ * header and trailer.
+ */
+public class SessionLogReader {
+    /**
+     * The plan and result of a recorded session, read from its header and trailer alone.
+     *
+     * @param file   the log file
+     * @param plan   the plan the test was taken from, or null if it had none
+     * @param result the result stored at the end of the log, or null if the session did not finish normally
+     */
+    public record Summary(Path file, TestPlan plan, Result result) {
+    }
+
+    /**
+     * The size above which a log is memory-mapped rather than read onto the heap.
+     */
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private final Path file;
+    private final ByteBuffer contents;
+    private final TestMode mode;
+    private final TestPlan plan;
+    private final long startEpochMillis;
+    private final int[] blockOffsets;
+    private final Result result;
+    private final boolean submittedText;
+
+    /**
+     * Constructs a new SessionLogReader, reading or mapping the file and indexing its blocks.
+     *
+     * @param file the log file to read
+     * @throws IOException if the file cannot be read or is not a session log
+     */
+    public SessionLogReader(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAP_THRESHOLD) {
+                contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                contents = ByteBuffer.allocate((int) size);
+                while (contents.hasRemaining()) {
+                    if (channel.read(contents) < 0) {
+                        break;
+                    }
+                }
+                contents.flip();
+            }
+        }
+        if (contents.limit() < V1_HEADER_BYTES || contents.getInt(0) != MAGIC) {
+            throw new IOException("Not a session log: " + file);
+        }
+        int headerBytes;
+        short version = contents.getShort(4);
+        if (version == 1) {
+            // Version 1 stored a mode index laid out for three time limits
+            int index = contents.getShort(6);
+            mode = modeOf(index / 6, index / 3 % 2, index % 3, file);
+            plan = null;
+            startEpochMillis = contents.getLong(8);
+            headerBytes = V1_HEADER_BYTES;
+        } else if ((version == 2 || version == VERSION) && contents.limit() >= HEADER_BYTES) {
+            mode = modeOf(contents.get(6), contents.get(7), contents.get(8), file);
+            startEpochMillis = contents.getLong(12);
+            plan = contents.get(9) == HAS_PLAN ? new TestPlan(mode, contents.getInt(20), contents.getLong(24)) : null;
+            headerBytes = HEADER_BYTES;
+        } else {
+            throw new IOException("Unsupported session log version " + version + ": " + file);
+        }
+        submittedText = version >= SUBMITTED_TEXT_VERSION;
+
+        // Hop from block header to block header to find where each block starts
+        int[] offsets = new int[16];
+        int blocks = 0;
+        int position = headerBytes;
+        Result trailer = null;
+        while (position + 4 <= contents.limit()) {
+            int count = contents.getInt(position);
+            if (count == TRAILER_MARKER) {
+                if (position + TRAILER_BYTES <= contents.limit()) {
+                    trailer = readTrailer(contents, position + 4);
+                }
+                break;
+            }
+            if (position + BLOCK_HEADER_BYTES > contents.limit()) {
+                break; // a block cut short by a crash is ignored
+            }
+            int end = position + BLOCK_HEADER_BYTES + contents.getInt(position + 4);
+            if (end > contents.limit()) {
+                break;
+            }
+            if (blocks == offsets.length) {
+                offsets = Arrays.copyOf(offsets, blocks * 2);
+            }
+            offsets[blocks++] = position;
+            position = end;
+        }
+        blockOffsets = Arrays.copyOf(offsets, blocks);
+        result = trailer;
+    }
+
+    /**
+     * Reads the plan and result of a session log without reading its events. Only the header and
+     * the last bytes of the file are read, and the file is closed before this returns. The trailer
+     * is taken on trust, so open the log in full to check it before relying on it.
+     *
+     * @param file the log file to read
+     * @return the plan and result of the log
+     * @throws IOException if the file cannot be read or is not a session log
+     */
+    public static Summary summarise(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate((int) Math.min(size, HEADER_BYTES));
+            readFully(channel, header, 0);
+            if (header.limit() < V1_HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a session log: " + file);
+            }
+            short version = header.getShort(4);
+            if (version == 1) {
+                return new Summary(file, null, null); // version 1 logs have no plan
+            }
+            if ((version != 2 && version != VERSION) || header.limit() < HEADER_BYTES) {
+                throw new IOException("Unsupported session log version " + version + ": " + file);
+            }
+            TestMode mode = modeOf(header.get(6), header.get(7), header.get(8), file);
+            TestPlan plan = header.get(9) == HAS_PLAN ? new TestPlan(mode, header.getInt(20), header.getLong(24)) : null;
+            Result result = null;
+            if (size >= HEADER_BYTES + TRAILER_BYTES) {
+                ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+                readFully(channel, trailer, size - TRAILER_BYTES);
+                if (trailer.getInt(0) == TRAILER_MARKER) {
+                    result = readTrailer(trailer, 4);
+                }
+            }
+            return new Summary(file, plan, result);
+        }
+    }
+
+    /**
+     * Reads from a channel until a buffer is full or the file ends, then flips the buffer.
+     *
+     * @param channel  the channel to read
+     * @param buffer   the buffer to fill
+     * @param position where in the file to start reading
+     * @throws IOException if the file cannot be read
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Gets the log file.
+     *
+     * @return the log file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the mode of the recorded test.
+     *
+     * @return the test mode
+     */
+    public TestMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the plan the recorded test was taken from.
+     *
+     * @return the plan, or null if the test had none
+     */
+    public TestPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Gets the wall-clock time the session started.
+     *
+     * @return the start time in milliseconds since epoch
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Gets the result stored at the end of the log.
+     * The result has no throughput series, since only the keystrokes are kept.
+     *
+     * @return the result, or null if the session did not finish normally
+     */
+    public Result getResult() {
+        return result;
+    }
+
+    /**
+     * Checks whether the log records the text of each submission, as well as the keys typed.
+     *
+     * @return true if every submission is preceded by its text
+     */
+    public boolean hasSubmittedText() {
+        return submittedText;
+    }
+
+    /**
+     * Gets the number of blocks of events in the log.
+     *
+     * @return the number of blocks
+     */
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Passes every event in the log to a listener, in order.
+     *
+     * @param listener the listener to receive the events
+     * @throws IOException if a block fails its checksum
+     */
+    public void forEachEvent(KeystrokeListener listener) throws IOException {
+        for (int block = 0; block < blockOffsets.length; block++) {
+            forEachEventInBlock(block, listener);
+        }
+    }
+
+    /**
+     * Passes the events of one block to a listener, in order.
+     * Blocks can be read from different threads at the same time.
+     *
+     * @param block    the index of the block
+     * @param listener the listener to receive the events
+     * @throws IOException if the block fails its checksum
+     */
+    public void forEachEventInBlock(int block, KeystrokeListener listener) throws IOException {
+        int offset = blockOffsets[block];
+        int count = contents.getInt(offset);
+        int payloadLength = contents.getInt(offset + 4);
+        int keysOffset = contents.getInt(offset + 8);
+        int typesOffset = contents.getInt(offset + 12);
+        long time = contents.getLong(offset + 16);
+        int checksum = contents.getInt(offset + 24);
+
+        // Each reader works on its own views of the contents, so blocks can be read concurrently
+        int payloadStart = offset + BLOCK_HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(contents.slice(payloadStart, payloadLength));
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch in block " + block + " of " + file);
+        }
+
+        ByteBuffer deltas = contents.slice(payloadStart, keysOffset);
+        ByteBuffer keys = contents.slice(payloadStart + keysOffset, typesOffset - keysOffset);
+        int types = payloadStart + typesOffset;
+        for (int i = 0; i < count; i++) {
+            time += getVarLong(deltas);
+            listener.onKeystroke(time, (char) getVarLong(keys), contents.get(types + i));
+        }
+    }
+
+    /**
+     * Builds the mode stored in the header.
+     *
+     * @param textOption   the stored text option
+     * @param formatOption the stored format option
+     * @param timeOption   the stored time option
+     * @param file         the log file, for the error message
+     * @return the mode
+     * @throws IOException if the stored options are out of range
+     */
+    private static TestMode modeOf(int textOption, int formatOption, int timeOption, Path file) throws IOException {
+        try {
+            return new TestMode(textOption, formatOption, timeOption);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Damaged session log header: " + file, e);
+        }
+    }
+
+    /**
+     * Reads the result stored in the trailer.
+     *
+     * @param contents the bytes holding the trailer
+     * @param position the position just after the trailer marker
+     * @return the stored result
+     */
+    private static Result readTrailer(ByteBuffer contents, int position) {
+        long testNanos = contents.getLong(position);
+        int correctWords = contents.getInt(position + 8);
+        int totalWords = contents.getInt(position + 12);
+        int correctChars = contents.getInt(position + 16);
+        int typedChars = contents.getInt(position + 20);
+        return new Result(testNanos / 1_000_000, correctWords, totalWords, testNanos, correctChars, typedChars, new int[0]);
+    }
+}
@@ -0,0 +1,183 @@
+package GuiTypingTest.Sessions;
+
+import GuiTypingTest.Plans.TestPlan;
+import GuiTypingTest.Result;
+import GuiTypingTest.TestMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.*;
+import java.util.zip.CRC32;
+
+import static GuiTypingTest.Sessions.SessionLogFormat.*;
+
+/**
+ * SessionLogWriter records the keystrokes of a typing session to a compact binary log.
+ * Events are collected in primitive arrays and written out a block at a time, so memory use
+ * stays the same however long the session runs. See {@link SessionLogFormat} for the layout.
+ */
+public class SessionLogWriter implements KeystrokeListener, Closeable {
+    private final FileChannel channel;
+    private final long startNanos;
+    private final long[] times = new long[BLOCK_EVENTS];
+    private final char[] keys = new char[BLOCK_EVENTS];
+    private final byte[] types = new byte[BLOCK_EVENTS];
+    private final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_BYTES + BLOCK_EVENTS * (10 + 3 + 1));
+    private final CRC32 crc = new CRC32();
+    private int count;
+
+    /**
+     * Constructs a new SessionLogWriter, creating the log file and writing its header.
+     * The session is taken to start now.
+     *
+     * @param file the file to write
+     * @param mode the mode of the test being recorded
+     * @throws IOException if the file cannot be written
+     */
+    public SessionLogWriter(Path file, TestMode mode) throws IOException {
+        this(file, mode, null);
+    }
+
+    /**
+     * Constructs a new SessionLogWriter for a test taken from a plan, so the session can later
+     * be found and raced against by anyone taking the same plan.
+     * The session is taken to start now.
+     *
+     * @param file the file to write
+     * @param plan the plan of the test being recorded
+     * @throws IOException if the file cannot be written
+     */
+    public SessionLogWriter(Path file, TestPlan plan) throws IOException {
+        this(file, plan.mode(), plan);
+    }
+
+    /**
+     * Constructs a new SessionLogWriter, creating the log file and writing its header.
+     *
+     * @param file the file to write
+     * @param mode the mode of the test being recorded
+     * @param plan the plan of the test, or null if it has none
+     * @throws IOException if the file cannot be written
+     */
+    private SessionLogWriter(Path file, TestMode mode, TestPlan plan) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        startNanos = System.nanoTime();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION)
+                .put((byte) mode.textOption()).put((byte) mode.formatOption()).put((byte) mode.timeOption())
+                .put(plan == null ? 0 : HAS_PLAN).putShort((short) 0)
+                .putLong(System.currentTimeMillis())
+                .putInt(plan == null ? 0 : plan.corpusVersion()).putLong(plan == null ? 0 : plan.seed());
+        write(header.flip());
+    }
+
+    /**
+     * Records a keystroke.
+     * If the log cannot be written the keystroke is dropped, so a full disk never stops a test.
+     *
+     * @param nanos the time of the keystroke from {@link System#nanoTime()}
+     * @param key   the character typed, or 0 for backspaces and submissions
+     * @param type  the event type
+     */
+    @Override
+    public void onKeystroke(long nanos, char key, byte type) {
+        if (count == BLOCK_EVENTS) {
+            try {
+                flush();
+            } catch (IOException e) {
+                count = 0; // drop the block rather than fail the test
+                Logger.getLogger(SessionLogWriter.class.getName()).log(Level.SEVERE, null, e);
+            }
+        }
+        times[count] = Math.max(0, nanos - startNanos);
+        keys[count] = key;
+        types[count] = type;
+        count++;
+    }
+
+    /**
+     * Writes the remaining events and the result of the test, then closes the log.
+     *
+     * @param result the result of the test
+     * @throws IOException if the log cannot be written
+     */
+    public void close(Result result) throws IOException {
+        try {
+            flush();
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            trailer.putInt(TRAILER_MARKER).putLong(result.testNanos())
+                    .putInt(result.correctWords()).putInt(result.totalWords())
+                    .putInt(result.correctChars()).putInt(result.typedChars());
+            write(trailer.flip());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the remaining events and closes the log without a result.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Encodes the collected events as one block and writes it.
+     *
+     * @throws IOException if the block cannot be written
+     */
+    private void flush() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        buffer.clear();
+        buffer.position(BLOCK_HEADER_BYTES);
+        int payloadStart = buffer.position();
+
+        long previous = times[0];
+        for (int i = 0; i < count; i++) {
+            putVarLong(buffer, times[i] - previous);
+            previous = times[i];
+        }
+        int keysOffset = buffer.position() - payloadStart;
+        for (int i = 0; i < count; i++) {
+            putVarLong(buffer, keys[i]);
+        }
+        int typesOffset = buffer.position() - payloadStart;
+        buffer.put(types, 0, count);
+        int payloadLength = buffer.position() - payloadStart;
+
+        crc.reset();
+        crc.update(buffer.array(), payloadStart, payloadLength);
+        buffer.putInt(0, count).putInt(4, payloadLength).putInt(8, keysOffset).putInt(12, typesOffset)
+                .putLong(16, times[0]).putInt(24, (int) crc.getValue());
+
+        buffer.flip();
+        write(buffer);
+        count = 0;
+    }
+
+    /**
+     * Writes all of a buffer to the file.
+     *
+     * @param data the data to write
+     * @throws IOException if the data cannot be written
+     */
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package GuiTypingTest.Sessions;
+
+import GuiTypingTest.InputProviders.ReplayInputProvider;
+import GuiTypingTest.Result;
+import GuiTypingTest.Testers.TypingTester;
+
+import java.io.IOException;
+
+/**
+ * Class to replay a recorded session through a typing tester.
+ * Logs that record the submitted text are scored on exactly what was submitted; older logs are
+ * scored on the text rebuilt from the typed keys and backspaces.
+ * The tester must have been created with the replay input provider and replay clock,
+ * for example {@code new TimeLimitTypingTestWords(provider, input, timeLimit, null, clock)}.
+ * Events are fed in as fast as they can be processed, with the clock jumping to the time of
+ * each event, so a three-minute session replays in milliseconds and always scores the same.
+ * Only timed sessions can be replayed: an endurance session has no time limit to replay against,
+ * and its text arrives from a background stream rather than at the moments it was recorded.
+ */
+public class SessionReplayer {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SessionReplayer() {
+    }
+
+    /**
+     * Replays a recorded session through a tester.
+     *
+     * @param log    the recorded session
+     * @param tester the tester to replay through
+     * @param input  the replay input provider the tester reads from
+     * @param clock  the replay clock the tester runs on
+     * @return the result of the replayed test
+     * @throws IOException              if the log is damaged
+     * @throws IllegalArgumentException if the log is of an endurance session
+     */
+    public static Result replay(SessionLogReader log, TypingTester tester, ReplayInputProvider input, ReplayClock clock) throws IOException {
+        if (log.getMode().isEndurance()) {
+            throw new IllegalArgumentException("Endurance sessions cannot be replayed, since they have no time limit: " + log.getFile());
+        }
+        input.setSubmittedTextRecorded(log.hasSubmittedText());
+        tester.startTest();
+        log.forEachEvent((nanos, key, type) -> {
+            // Events after the time limit were never scored, so they are skipped
+            clock.advanceTo(nanos);
+            if (clock.hasPending()) {
+                input.onKeystroke(nanos, key, type);
+            }
+        });
+
+        // Let the time limit run out if the recording stops before it
+        clock.runPending();
+        return tester.completeTest();
+    }
+}
@@ -0,0 +1,54 @@
+package GuiTypingTest;
+
+import java.time.Instant;
+
+/**
+ * StartupProbe measures how long the application takes to start.
+ * It is switched on with {@code -Dtypingtester.startupProbe=true} and reports the time from
+ * process start to the first visible frame and to the first prompt of a test, then exits.
+ * The same run is used as the training run for the class-data-sharing archive,
+ * so the classes loaded on the way to the first prompt are the ones that get archived.
+ */
+public class StartupProbe {
+    private static final boolean ENABLED = Boolean.getBoolean("typingtester.startupProbe");
+    private static final long PROCESS_START = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static long firstFrameMillis = -1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StartupProbe() {
+    }
+
+    /**
+     * Checks whether the startup probe is switched on.
+     *
+     * @return true if the startup probe is switched on
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Records that the first frame is showing.
+     */
+    public static void firstFrame() {
+        if (ENABLED && firstFrameMillis < 0) {
+            firstFrameMillis = System.currentTimeMillis() - PROCESS_START;
+            System.out.println("first-frame-ms=" + firstFrameMillis);
+        }
+    }
+
+    /**
+     * Records that the first prompt of a test is showing, then exits the application.
+     */
+    public static void firstPrompt() {
+        if (ENABLED) {
+            System.out.println("first-prompt-ms=" + (System.currentTimeMillis() - PROCESS_START));
+            System.exit(0);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package GuiTypingTest.Statistics;
+
+/**
+ * RunningStatistics keeps running aggregates of one metric for a fixed number of slots.
+ * For every slot it tracks the count, the mean and variance (using Welford's algorithm),
+ * an exponentially weighted moving average and a fixed-width histogram for percentiles.
+ * All state lives in primitive arrays allocated up front, so each update is O(1) and
+ * the memory used does not grow with the number of values recorded.
+ */
+public class RunningStatistics {
+    private final int slots;
+    private final int maxValue;
+    private final double alpha;
+
+    private final long[] count;
+    private final double[] mean;
+    private final double[] m2;
+    private final double[] ewma;
+    private final long[] histogram;
+
+    /**
+     * Constructs a new RunningStatistics.
+     * Values are recorded in histogram buckets of width 1, and anything above
+     * maxValue is counted in the last bucket.
+     *
+     * @param slots    the number of independent slots
+     * @param maxValue the largest value with its own histogram bucket
+     * @param alpha    the smoothing factor of the moving average, between 0 and 1
+     */
+    public RunningStatistics(int slots, int maxValue, double alpha) {
+        this.slots = slots;
+        this.maxValue = maxValue;
+        this.alpha = alpha;
+        this.count = new long[slots];
+        this.mean = new double[slots];
+        this.m2 = new double[slots];
+        this.ewma = new double[slots];
+        this.histogram = new long[slots * (maxValue + 1)];
+    }
+
+    /**
+     * Adds a value to the aggregates of a slot.
+     *
+     * @param slot  the slot to update
+     * @param value the value to add
+     */
+    public void add(int slot, double value) {
+        long n = ++count[slot];
+
+        // Welford's update of the mean and the sum of squared differences
+        double delta = value - mean[slot];
+        mean[slot] += delta / n;
+        m2[slot] += delta * (value - mean[slot]);
+
+        // The first value seeds the moving average
+        ewma[slot] = n == 1 ? value : alpha * value + (1 - alpha) * ewma[slot];
+
+        histogram[slot * (maxValue + 1) + bucketOf(value)]++;
+    }
+
+    /**
+     * Gets the number of values recorded for a slot.
+     *
+     * @param slot the slot
+     * @return the number of values
+     */
+    public long count(int slot) {
+        return count[slot];
+    }
+
+    /**
+     * Gets the mean of the values recorded for a slot.
+     *
+     * @param slot the slot
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double mean(int slot) {
+        return mean[slot];
+    }
+
+    /**
+     * Gets the sample variance of the values recorded for a slot.
+     *
+     * @param slot the slot
+     * @return the sample variance, or 0 if fewer than two values were recorded
+     */
+    public double variance(int slot) {
+        return count[slot] < 2 ? 0 : m2[slot] / (count[slot] - 1);
+    }
+
+    /**
+     * Gets the sample standard deviation of the values recorded for a slot.
+     *
+     * @param slot the slot
+     * @return the standard deviation
+     */
+    public double standardDeviation(int slot) {
+        return Math.sqrt(variance(slot));
+    }
+
+    /**
+     * Gets the exponentially weighted moving average for a slot.
+     * Recent values weigh more, so comparing it to the mean shows the trend.
+     *
+     * @param slot the slot
+     * @return the moving average, or 0 if nothing was recorded
+     */
+    public double movingAverage(int slot) {
+        return ewma[slot];
+    }
+
+    /**
+     * Gets the value below which the given fraction of the recorded values fall.
+     *
+     * @param slot     the slot
+     * @param fraction the fraction, between 0 and 1 (0.5 for the median)
+     * @return the value at the percentile, or 0 if nothing was recorded
+     */
+    public int percentile(int slot, double fraction) {
+        if (count[slot] == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(fraction * count[slot]);
+        long seen = 0;
+        int base = slot * (maxValue + 1);
+        for (int bucket = 0; bucket <= maxValue; bucket++) {
+            seen += histogram[base + bucket];
+            if (seen >= Math.max(target, 1)) {
+                return bucket;
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Gets the percentage of recorded values that are lower than or equal to a value.
+     *
+     * @param slot  the slot
+     * @param value the value to rank
+     * @return the percentile rank, between 0 and 100
+     */
+    public int percentileRank(int slot, double value) {
+        if (count[slot] == 0) {
+            return 0;
+        }
+        long atOrBelow = 0;
+        int base = slot * (maxValue + 1);
+        int last = bucketOf(value);
+        for (int bucket = 0; bucket <= last; bucket++) {
+            atOrBelow += histogram[base + bucket];
+        }
+        return (int) (atOrBelow * 100 / count[slot]);
+    }
+
+    /**
+     * Gets the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int slots() {
+        return slots;
+    }
+
+    /**
+     * Gets the histogram bucket for a value.
+     *
+     * @param value the value
+     * @return the bucket index, clamped to the histogram range
+     */
+    private int bucketOf(double value) {
+        return (int) Math.max(0, Math.min(maxValue, Math.floor(value)));
+    }
+}
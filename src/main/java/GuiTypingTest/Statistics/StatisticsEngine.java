@@ -0,0 +1,76 @@
+package GuiTypingTest.Statistics;
+
+import GuiTypingTest.Result;
+import GuiTypingTest.TestMode;
+
+/**
+ * StatisticsEngine keeps running speed and accuracy aggregates for every test mode.
+ * Each new result is folded in with O(1) work, and all queries are answered from
+ * fixed-size storage, so they cost the same however long the history gets.
+ */
+public class StatisticsEngine {
+    /**
+     * The highest speed, in words per minute, with its own histogram bucket.
+     */
+    private static final int MAX_SPEED = 300;
+
+    /**
+     * The highest accuracy, in percent.
+     */
+    private static final int MAX_ACCURACY = 100;
+
+    /**
+     * The smoothing factor of the moving averages.
+     */
+    private static final double ALPHA = 0.3;
+
+    private final RunningStatistics speed = new RunningStatistics(TestMode.COUNT, MAX_SPEED, ALPHA);
+    private final RunningStatistics accuracy = new RunningStatistics(TestMode.COUNT, MAX_ACCURACY, ALPHA);
+
+    /**
+     * Records the result of a test run in the given mode.
+     *
+     * @param mode   the mode the test was run in
+     * @param result the result of the test
+     */
+    public void record(TestMode mode, Result result) {
+        speed.add(mode.index(), result.calculateSpeed());
+        accuracy.add(mode.index(), result.calculateAccuracy());
+    }
+
+    /**
+     * Gets the running speed aggregates, one slot per {@link TestMode#index()}.
+     *
+     * @return the speed statistics
+     */
+    public RunningStatistics speed() {
+        return speed;
+    }
+
+    /**
+     * Gets the running accuracy aggregates, one slot per {@link TestMode#index()}.
+     *
+     * @return the accuracy statistics
+     */
+    public RunningStatistics accuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Method to summarise the statistics of a mode for the results screen.
+     *
+     * @param mode   the mode to summarise
+     * @param result the latest result in that mode, to rank against the history
+     * @return a string summary of the mode statistics
+     */
+    public String summarise(TestMode mode, Result result) {
+        int slot = mode.index();
+        return "Tests In This Mode: " + speed.count(slot) + "\n" +
+                "Average Speed: " + Math.round(speed.mean(slot)) +
+                " ± " + Math.round(speed.standardDeviation(slot)) + " words per minute\n" +
+                "Recent Speed Trend: " + Math.round(speed.movingAverage(slot)) + " words per minute\n" +
+                "Median Speed: " + speed.percentile(slot, 0.5) + " words per minute\n" +
+                "Average Accuracy: " + Math.round(accuracy.mean(slot)) + "%\n" +
+                "This Run Beats Or Matches: " + speed.percentileRank(slot, result.calculateSpeed()) + "% of your tests\n";
+    }
+}
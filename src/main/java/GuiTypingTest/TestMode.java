@@ -0,0 +1,80 @@
+package GuiTypingTest;
+
+/**
+ * Record to identify the mode a typing test was run in.
+ * A mode is the combination of the type of text, the format and the time limit
+ * chosen on the options screen, and each mode maps to a fixed slot index so that
+ * per-mode data can be kept in flat primitive arrays.
+ *
+ * @param textOption   the index of the selected type of text
+ * @param formatOption the index of the selected format (0 for words, 1 for sentences)
+ * @param timeOption   the index of the selected time limit
+ */
+public record TestMode(int textOption, int formatOption, int timeOption) {
+    /**
+     * The number of text type options.
+     */
+    public static final int TEXT_OPTIONS = 5;
+
+    /**
+     * The number of format options.
+     */
+    public static final int FORMAT_OPTIONS = 2;
+
+    /**
+     * The number of time limit options.
+     */
+    public static final int TIME_OPTIONS = 4;
+
+    /**
+     * The time option of endurance tests, which have no time limit and run until the user finishes them.
+     */
+    public static final int ENDURANCE = 3;
+
+    /**
+     * The total number of distinct modes.
+     */
+    public static final int COUNT = TEXT_OPTIONS * FORMAT_OPTIONS * TIME_OPTIONS;
+
+    /**
+     * Compact constructor to check that every option is in range.
+     */
+    public TestMode {
+        if (textOption < 0 || textOption >= TEXT_OPTIONS
+                || formatOption < 0 || formatOption >= FORMAT_OPTIONS
+                || timeOption < 0 || timeOption >= TIME_OPTIONS) {
+            throw new IllegalArgumentException("Invalid test mode: " + textOption + "/" + formatOption + "/" + timeOption);
+        }
+    }
+
+    /**
+     * Method to get the slot index of this mode, between 0 and {@link #COUNT} - 1.
+     *
+     * @return the slot index of this mode
+     */
+    public int index() {
+        return (textOption * FORMAT_OPTIONS + formatOption) * TIME_OPTIONS + timeOption;
+    }
+
+    /**
+     * Method to check whether this is an endurance mode, with no time limit.
+     *
+     * @return true if tests in this mode run until the user finishes them
+     */
+    public boolean isEndurance() {
+        return timeOption == ENDURANCE;
+    }
+
+    /**
+     * Method to get the mode stored at a slot index.
+     *
+     * @param index the slot index
+     * @return the mode for the slot index
+     */
+    public static TestMode fromIndex(int index) {
+        int timeOption = index % TIME_OPTIONS;
+        int formatOption = (index / TIME_OPTIONS) % FORMAT_OPTIONS;
+        int textOption = index / (TIME_OPTIONS * FORMAT_OPTIONS);
+        return new TestMode(textOption, formatOption, timeOption);
+    }
+}
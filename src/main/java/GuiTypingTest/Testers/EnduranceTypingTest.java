@@ -0,0 +1,171 @@
+package GuiTypingTest.Testers;
+
+import GuiTypingTest.FrameTicker;
+import GuiTypingTest.InputProviders.InputProvider;
+import GuiTypingTest.Result;
+import GuiTypingTest.Text.GraphemeText;
+
+/**
+ * EnduranceTypingTest is a typing test with no time limit, which runs until the user finishes it
+ * and can go on for hours. Text comes from a {@link TextStream} as it is needed, and besides the
+ * totals only the recent speed and accuracy are kept, in {@link RollingStats}, so the memory the
+ * test uses stays the same however long it runs. The keystrokes themselves go to the session log,
+ * which writes them out in compact blocks. If the stream falls behind the typist, nothing waits for
+ * it: the test tries again for the next text on every frame until it is ready.
+ */
+public class EnduranceTypingTest implements TypingTester, FrameTicker.FrameListener {
+    private final TextStream textStream;
+    private final InputProvider inputProvider;
+    private final boolean singleWords;
+    private final TestClock clock;
+    private final ThroughputRecorder throughput;
+    private final RollingStats recent = new RollingStats();
+    private long startTime;
+    private volatile long startNanos = -1;
+    private volatile TestProgress progress = TestProgress.NONE;
+    private int correctWords;
+    private int totalWords;
+    private Result result;
+    private boolean waiting;
+
+    /**
+     * Constructs a new EnduranceTypingTest.
+     *
+     * @param textStream    the text to type
+     * @param inputProvider the provider for user input
+     * @param singleWords   true if the text is single words, false for sentences
+     * @param clock         the clock the test runs on
+     */
+    public EnduranceTypingTest(TextStream textStream, InputProvider inputProvider, boolean singleWords, TestClock clock) {
+        this.textStream = textStream;
+        this.inputProvider = inputProvider;
+        this.singleWords = singleWords;
+        this.clock = clock;
+        this.throughput = new ThroughputRecorder(0, clock);
+    }
+
+    /**
+     * Starts the typing test.
+     */
+    @Override
+    public void startTest() {
+        startTime = System.currentTimeMillis();
+        startNanos = clock.nanoTime();
+        throughput.start();
+        displayNext();
+    }
+
+    /**
+     * Completes the typing test, stops the text stream and calculates the result.
+     * Once the test is complete the same result is returned on every call.
+     *
+     * @return the result of the typing test
+     */
+    @Override
+    public Result completeTest() {
+        if (result == null) {
+            textStream.close();
+            result = throughput.toResult(correctWords, totalWords);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the start time of the test.
+     *
+     * @return the start time in milliseconds since epoch
+     */
+    @Override
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the time since the test started.
+     *
+     * @return the elapsed time in nanoseconds, or 0 if the test has not started
+     */
+    @Override
+    public long getElapsedNanos() {
+        long start = startNanos;
+        return start < 0 ? 0 : clock.nanoTime() - start;
+    }
+
+    /**
+     * Gets the counts of the test so far.
+     *
+     * @return the latest snapshot of the progress
+     */
+    @Override
+    public TestProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Gets the speed and accuracy over the recent part of the test.
+     *
+     * @return the latest snapshot of the recent figures
+     */
+    public RollingStats.Snapshot getRecent() {
+        return recent.snapshot();
+    }
+
+    /**
+     * Shows the next text if the test was waiting for the stream and it is ready now.
+     *
+     * @param nanos the time of the frame
+     */
+    @Override
+    public void onFrame(long nanos) {
+        if (waiting) {
+            displayNext();
+        }
+    }
+
+    /**
+     * Displays the next sentence or word to type and sets up the input action.
+     * If the stream has no text ready, the last text can no longer be submitted,
+     * and the next frame tries again.
+     */
+    private void displayNext() {
+        if (result != null) {
+            return;
+        }
+        GraphemeText text = textStream.poll();
+        if (text == null) {
+            // Stop scoring the last text again; if the provider has run out, the user can only finish
+            waiting = !textStream.isFinished();
+            inputProvider.setTypingAction(typed -> inputProvider.setInputValid(true));
+            inputProvider.setSubmitAction(e -> { });
+            return;
+        }
+        waiting = false;
+
+        // Update the display area with the next text
+        inputProvider.displayText(text.text());
+
+        // Check on every keystroke that the input is still on track
+        inputProvider.setTypingAction(typed -> inputProvider.setInputValid(text.isPrefix(typed)));
+
+        // Set the action to be performed when the submit button is clicked
+        inputProvider.setSubmitAction(e -> {
+            String userInput = inputProvider.getUserInput();
+            int words;
+            int correct;
+            if (singleWords) {
+                words = 1;
+                correct = text.matches(userInput) ? 1 : 0;
+                throughput.record(GraphemeText.countTyped(userInput) + 1, correct == 1 ? text.graphemeCount() + 1 : 0);
+            } else {
+                words = text.wordCount();
+                correct = text.countCorrectWords(userInput);
+                throughput.record(GraphemeText.countTyped(userInput) + 1, text.countCorrectGraphemes(userInput));
+            }
+            totalWords += words;
+            correctWords += correct;
+            progress = progress.after(correct, words);
+            recent.record(clock.nanoTime() - startNanos, correct, words);
+            displayNext();
+        });
+    }
+}
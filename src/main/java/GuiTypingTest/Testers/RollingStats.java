@@ -0,0 +1,165 @@
+package GuiTypingTest.Testers;
+
+/**
+ * RollingStats keeps the speed and accuracy of the recent part of a long test: over the last
+ * {@link #WINDOW_WORDS} words, and over the last {@link #WINDOW_MINUTES} minutes.
+ * Both windows are fixed-size ring buffers with running totals, so each submission costs O(1)
+ * amortised work and the memory used is the same after five minutes as after five hours.
+ * The figures are published as an immutable {@link Snapshot} through a volatile field,
+ * so a display can read them from any thread without locking.
+ */
+public class RollingStats {
+    /**
+     * The number of most recent words the word window covers.
+     */
+    public static final int WINDOW_WORDS = 100;
+
+    /**
+     * The number of most recent minutes the time window covers.
+     */
+    public static final int WINDOW_MINUTES = 5;
+
+    /**
+     * The figures of both windows at the last submission.
+     *
+     * @param wordsSpeed      the speed over the last words in words per minute
+     * @param wordsAccuracy   the accuracy over the last words in percent
+     * @param minutesSpeed    the speed over the last minutes in words per minute
+     * @param minutesAccuracy the accuracy over the last minutes in percent
+     */
+    public record Snapshot(int wordsSpeed, int wordsAccuracy, int minutesSpeed, int minutesAccuracy) {
+        /**
+         * The figures before anything is submitted.
+         */
+        public static final Snapshot NONE = new Snapshot(0, 0, 0, 0);
+    }
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    private static final int WINDOW_SECONDS = WINDOW_MINUTES * 60;
+
+    // The last words and when the user started on each, oldest at head once the ring is full
+    private final long[] wordStarts = new long[WINDOW_WORDS];
+    private final boolean[] wordCorrect = new boolean[WINDOW_WORDS];
+    private int head;
+    private int words;
+    private int correctInWords;
+    private long lastSubmission;
+
+    // Words and correct words submitted in each of the last seconds, indexed by second modulo the window
+    private final int[] secondTotal = new int[WINDOW_SECONDS];
+    private final int[] secondCorrect = new int[WINDOW_SECONDS];
+    private long lastSecond;
+    private int totalInMinutes;
+    private int correctInMinutes;
+
+    private volatile Snapshot snapshot = Snapshot.NONE;
+
+    /**
+     * Records a submission.
+     *
+     * @param elapsedNanos the time of the submission since the test started
+     * @param correct      the number of words typed correctly in it
+     * @param total        the number of words in it
+     */
+    public void record(long elapsedNanos, int correct, int total) {
+        // The words of a submission were started when the one before it was made
+        for (int i = 0; i < total; i++) {
+            addWord(lastSubmission, i < correct);
+        }
+        lastSubmission = elapsedNanos;
+
+        long second = elapsedNanos / SECOND_NANOS;
+        advanceTo(second);
+        int slot = (int) (second % WINDOW_SECONDS);
+        secondTotal[slot] += total;
+        secondCorrect[slot] += correct;
+        totalInMinutes += total;
+        correctInMinutes += correct;
+
+        publish(elapsedNanos);
+    }
+
+    /**
+     * Gets the figures as of the last submission.
+     *
+     * @return the latest snapshot
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds one word to the word window, dropping the oldest if it is full.
+     *
+     * @param nanos   the time the user started on the word
+     * @param correct true if it was typed correctly
+     */
+    private void addWord(long nanos, boolean correct) {
+        int slot = (head + words) % WINDOW_WORDS;
+        if (words == WINDOW_WORDS) {
+            if (wordCorrect[head]) {
+                correctInWords--;
+            }
+            head = (head + 1) % WINDOW_WORDS;
+        } else {
+            words++;
+        }
+        wordStarts[slot] = nanos;
+        wordCorrect[slot] = correct;
+        if (correct) {
+            correctInWords++;
+        }
+    }
+
+    /**
+     * Moves the time window on to a new second, clearing the seconds that have fallen out of it.
+     *
+     * @param second the current second of the test
+     */
+    private void advanceTo(long second) {
+        long from = Math.max(lastSecond + 1, second - WINDOW_SECONDS + 1);
+        for (long s = from; s <= second; s++) {
+            int slot = (int) (s % WINDOW_SECONDS);
+            totalInMinutes -= secondTotal[slot];
+            correctInMinutes -= secondCorrect[slot];
+            secondTotal[slot] = 0;
+            secondCorrect[slot] = 0;
+        }
+        lastSecond = Math.max(lastSecond, second);
+    }
+
+    /**
+     * Publishes the figures of both windows.
+     *
+     * @param elapsedNanos the time of the last submission since the test started
+     */
+    private void publish(long elapsedNanos) {
+        // The word window runs from when the user started on its oldest word, the test start until it fills
+        long wordsStart = wordStarts[head];
+        long minutesStart = Math.max(0, elapsedNanos - WINDOW_SECONDS * SECOND_NANOS);
+        snapshot = new Snapshot(speed(correctInWords, elapsedNanos - wordsStart), percent(correctInWords, words),
+                speed(correctInMinutes, elapsedNanos - minutesStart), percent(correctInMinutes, totalInMinutes));
+    }
+
+    /**
+     * Calculates a speed.
+     *
+     * @param correctWords the number of words typed correctly
+     * @param nanos        the time they took
+     * @return the speed in words per minute
+     */
+    private static int speed(int correctWords, long nanos) {
+        return nanos > 0 ? (int) (correctWords * 60_000_000_000.0 / nanos) : 0;
+    }
+
+    /**
+     * Calculates a percentage.
+     *
+     * @param part  the part
+     * @param whole the whole
+     * @return the part as a percentage of the whole, or 0 if the whole is 0
+     */
+    private static int percent(int part, int whole) {
+        return whole > 0 ? (int) ((double) part / whole * 100) : 0;
+    }
+}
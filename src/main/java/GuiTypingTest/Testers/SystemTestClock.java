@@ -0,0 +1,40 @@
+package GuiTypingTest.Testers;
+
+import javax.swing.*;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * SystemTestClock is the clock used for tests typed live.
+ * Time comes from {@link System#nanoTime()}, and scheduled tasks run on the
+ * event-dispatching thread once a timer fires.
+ */
+public class SystemTestClock implements TestClock {
+    /**
+     * Gets the current time from the system.
+     *
+     * @return the current time in nanoseconds
+     */
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Runs a task on the event-dispatching thread after a delay.
+     *
+     * @param task        the task to run
+     * @param delayMillis the delay in milliseconds
+     */
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        Timer timer = new Timer();
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                SwingUtilities.invokeLater(task);
+                timer.cancel();
+            }
+        }, delayMillis);
+    }
+}
@@ -0,0 +1,23 @@
+package GuiTypingTest.Testers;
+
+/**
+ * The TestClock interface is the source of time for a typing test.
+ * Tests normally run on the system clock, but a recorded session can be replayed on a
+ * virtual clock, which makes the replay deterministic and lets it run faster than real time.
+ */
+public interface TestClock {
+    /**
+     * Gets the current time of this clock.
+     *
+     * @return the current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Runs a task once the given time has passed on this clock.
+     *
+     * @param task        the task to run
+     * @param delayMillis the delay in milliseconds
+     */
+    void schedule(Runnable task, long delayMillis);
+}
@@ -0,0 +1,50 @@
+package GuiTypingTest.Testers;
+
+/**
+ * TestProgress is a snapshot of the counts of a test in progress, for showing live.
+ * A tester publishes a new snapshot after each submission through a volatile field, so a
+ * display can read a consistent set of counts at any time without locking or slowing the typing.
+ *
+ * @param correctWords the number of words typed correctly so far
+ * @param totalWords   the number of words typed so far
+ * @param streak       the number of words typed correctly in a row, up to the last submission
+ */
+public record TestProgress(int correctWords, int totalWords, int streak) {
+    /**
+     * The progress of a test before anything is submitted.
+     */
+    public static final TestProgress NONE = new TestProgress(0, 0, 0);
+
+    /**
+     * Builds the progress after one more submission.
+     *
+     * @param correct the number of words typed correctly in the submission
+     * @param total   the number of words in the submission
+     * @return the new progress
+     */
+    public TestProgress after(int correct, int total) {
+        // A submission with a mistake breaks the streak; the words typed correctly after it do not count
+        int newStreak = correct == total ? streak + correct : 0;
+        return new TestProgress(correctWords + correct, totalWords + total, newStreak);
+    }
+
+    /**
+     * Calculates the speed so far, the same way the final result does.
+     *
+     * @param elapsedNanos the time since the test started
+     * @return the speed in words per minute
+     */
+    public int speed(long elapsedNanos) {
+        double minutes = elapsedNanos / 60_000_000_000.0;
+        return minutes > 0 ? (int) (correctWords / minutes) : 0;
+    }
+
+    /**
+     * Calculates the accuracy so far, the same way the final result does.
+     *
+     * @return the accuracy in percent
+     */
+    public int accuracy() {
+        return totalWords > 0 ? (int) ((double) correctWords / totalWords * 100) : 0;
+    }
+}
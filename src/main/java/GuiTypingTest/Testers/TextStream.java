@@ -0,0 +1,113 @@
+package GuiTypingTest.Testers;
+
+import GuiTypingTest.Metrics.Metrics;
+import GuiTypingTest.OutputProviders.TextToTypeProvider;
+import GuiTypingTest.Text.GraphemeText;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.*;
+
+/**
+ * TextStream supplies text without end for a test with no time limit.
+ * A background thread asks the provider for one batch of text after another, all from one
+ * random number generator seeded by the test plan, so the same plan always gives the same text,
+ * and its first batch is the text a timed test of the same plan would get.
+ * The text is prepared for comparison on that thread and handed over through a small bounded
+ * queue, so only a little text is ever held ahead of the typist however long the test runs.
+ * Taking text never waits, so it can be done on the event dispatch thread; only
+ * {@link #awaitReady()} waits, for the first text, and it is meant for a background thread.
+ */
+public class TextStream implements AutoCloseable {
+    /**
+     * The number of prepared sentences or words held ready ahead of the typist.
+     */
+    private static final int AHEAD = 64;
+
+    private final BlockingQueue<GraphemeText> queue = new ArrayBlockingQueue<>(AHEAD);
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final Thread producer;
+
+    /**
+     * Constructs a new TextStream and starts producing text.
+     *
+     * @param provider the provider the text is drawn from
+     * @param seed     the seed of the test plan
+     */
+    public TextStream(TextToTypeProvider provider, long seed) {
+        Random random = new Random(seed);
+        producer = new Thread(() -> {
+            try {
+                List<String> batch = generate(provider, random);
+                while (!batch.isEmpty()) {
+                    for (String text : batch) {
+                        queue.put(GraphemeText.of(text));
+                        ready.countDown();
+                    }
+                    batch = generate(provider, random);
+                }
+            } catch (InterruptedException e) {
+                // The test is over
+            } catch (RuntimeException e) {
+                Logger.getLogger(TextStream.class.getName()).log(Level.SEVERE, null, e);
+            } finally {
+                ready.countDown(); // nobody waits for text that will never come
+            }
+        }, "text-stream");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Waits until the first text is ready, or the provider has turned out to have none.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    /**
+     * Gets the next sentence or word to type if one is ready, without waiting.
+     *
+     * @return the next text, or null if none is ready yet or the provider has run out of text
+     */
+    public GraphemeText poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Checks whether the provider has run out of text and all of it has been taken.
+     *
+     * @return true if no more text will come
+     */
+    public boolean isFinished() {
+        // Checked in this order, text put just before the producer ends is never missed
+        return !producer.isAlive() && queue.isEmpty();
+    }
+
+    /**
+     * Stops producing text.
+     */
+    @Override
+    public void close() {
+        producer.interrupt();
+    }
+
+    /**
+     * Asks the provider for the next batch of text, timing how long it takes.
+     *
+     * @param provider the provider the text is drawn from
+     * @param random   the source of randomness
+     * @return the batch, empty if the provider has run out of text
+     */
+    private static List<String> generate(TextToTypeProvider provider, Random random) {
+        long start = System.nanoTime();
+        List<String> batch = provider.getTextToType(random);
+        Metrics.TEXT_GENERATION.recordSince(start);
+        return batch;
+    }
+}
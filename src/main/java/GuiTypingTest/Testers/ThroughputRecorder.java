@@ -0,0 +1,90 @@
+package GuiTypingTest.Testers;
+
+import GuiTypingTest.Result;
+
+import java.util.Arrays;
+
+/**
+ * ThroughputRecorder counts typed and correct characters during a test and
+ * buckets the correct characters into one-second intervals.
+ * Timing uses the nanosecond {@link TestClock} of the test so short tests are measured precisely.
+ * A test with no time limit can run for hours, so the buckets are capped at {@link Result#MAX_BUCKETS}:
+ * when they are full, neighbouring buckets are merged and each covers twice as long.
+ */
+public class ThroughputRecorder {
+    private final TestClock clock;
+    private long startNanos;
+    private long bucketNanos = Result.BUCKET_NANOS;
+    private int[] buckets;
+    private int correctChars;
+    private int typedChars;
+
+    /**
+     * Constructs a new ThroughputRecorder sized for the given time limit.
+     *
+     * @param timeLimit the expected length of the test in milliseconds, or 0 if it has no time limit
+     * @param clock     the clock the test runs on
+     */
+    public ThroughputRecorder(long timeLimit, TestClock clock) {
+        this.clock = clock;
+        this.buckets = new int[(int) Math.min(timeLimit / 1000 + 1, Result.MAX_BUCKETS)];
+    }
+
+    /**
+     * Starts timing the test.
+     */
+    public void start() {
+        startNanos = clock.nanoTime();
+    }
+
+    /**
+     * Records a submission made now.
+     *
+     * @param typed   the number of characters typed in the submission
+     * @param correct the number of those characters that were correct
+     */
+    public void record(int typed, int correct) {
+        typedChars += typed;
+        correctChars += correct;
+
+        int bucket = bucketOf(clock.nanoTime() - startNanos);
+        if (bucket >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.min(Math.max(bucket + 1, buckets.length * 2), Result.MAX_BUCKETS));
+        }
+        buckets[bucket] += correct;
+    }
+
+    /**
+     * Builds the result of the test, ending it now.
+     *
+     * @param correctWords the number of words typed correctly
+     * @param totalWords   the total number of words typed
+     * @return the result of the test
+     */
+    public Result toResult(int correctWords, int totalWords) {
+        long elapsedNanos = clock.nanoTime() - startNanos;
+        int usedBuckets = Math.min(buckets.length, bucketOf(elapsedNanos) + 1);
+        return new Result(elapsedNanos / 1_000_000, correctWords, totalWords,
+                elapsedNanos, correctChars, typedChars, Arrays.copyOf(buckets, usedBuckets));
+    }
+
+    /**
+     * Gets the bucket a moment of the test falls in, widening the buckets first if needed
+     * so the bucket length matches {@link Result#bucketNanos(long)}.
+     *
+     * @param elapsedNanos the time since the test started
+     * @return the bucket index, below {@link Result#MAX_BUCKETS}
+     */
+    private int bucketOf(long elapsedNanos) {
+        while (elapsedNanos / bucketNanos >= Result.MAX_BUCKETS) {
+            // Merge each pair of buckets into one twice as long
+            for (int i = 0; i < buckets.length; i++) {
+                int first = 2 * i < buckets.length ? buckets[2 * i] : 0;
+                int second = 2 * i + 1 < buckets.length ? buckets[2 * i + 1] : 0;
+                buckets[i] = first + second;
+            }
+            bucketNanos *= 2;
+        }
+        return (int) (elapsedNanos / bucketNanos);
+    }
+}
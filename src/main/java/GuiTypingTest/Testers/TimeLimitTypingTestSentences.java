@@ -3,12 +3,11 @@ package GuiTypingTest.Testers;
 import GuiTypingTest.OutputProviders.*;
 import GuiTypingTest.InputProviders.*;
 import GuiTypingTest.*;
+import GuiTypingTest.Text.GraphemeText;
 
 
-import javax.swing.*;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * TimeLimitTypingTestSentences is a typing test that measures typing speed and accuracy
@@ -16,16 +15,20 @@ import java.util.TimerTask;
  */
 public class TimeLimitTypingTestSentences implements TypingTester {
     private final InputProvider inputProvider;
-    private final List<String> textToType;
+    private final List<GraphemeText> textToType;
     private final long timeLimit;
     private long startTime;
+    private volatile long startNanos = -1;
+    private volatile TestProgress progress = TestProgress.NONE;
     private int correctWords;
     private int totalWords;
     private Result result;
     private final TypingTesterGUI gui;
+    private final ThroughputRecorder throughput;
+    private final TestClock clock;
 
     /**
-     * Constructs a new TimeLimitTypingTestSentences.
+     * Constructs a new TimeLimitTypingTestSentences that runs on the system clock.
      *
      * @param textToTypeProvider the provider for the text to type
      * @param inputProvider      the provider for user input
@@ -33,10 +36,39 @@ public class TimeLimitTypingTestSentences implements TypingTester {
      * @param gui                the GUI for the typing tester
      */
     public TimeLimitTypingTestSentences(TextToTypeProvider textToTypeProvider, InputProvider inputProvider, long timeLimit, TypingTesterGUI gui) {
+        this(textToTypeProvider, inputProvider, timeLimit, gui, new SystemTestClock());
+    }
+
+    /**
+     * Constructs a new TimeLimitTypingTestSentences.
+     *
+     * @param textToTypeProvider the provider for the text to type
+     * @param inputProvider      the provider for user input
+     * @param timeLimit          the time limit for the test
+     * @param gui                the GUI for the typing tester, or null when no GUI is shown
+     * @param clock              the clock the test runs on
+     */
+    public TimeLimitTypingTestSentences(TextToTypeProvider textToTypeProvider, InputProvider inputProvider, long timeLimit, TypingTesterGUI gui, TestClock clock) {
+        this(textToTypeProvider.getTextToType(), inputProvider, timeLimit, gui, clock);
+    }
+
+    /**
+     * Constructs a new TimeLimitTypingTestSentences from text that has already been generated,
+     * such as the text of a saved test plan, so no provider is needed.
+     *
+     * @param textToType    the text to type
+     * @param inputProvider the provider for user input
+     * @param timeLimit     the time limit for the test
+     * @param gui           the GUI for the typing tester, or null when no GUI is shown
+     * @param clock         the clock the test runs on
+     */
+    public TimeLimitTypingTestSentences(List<String> textToType, InputProvider inputProvider, long timeLimit, TypingTesterGUI gui, TestClock clock) {
         this.inputProvider = inputProvider;
         this.timeLimit = timeLimit;
-        this.textToType = textToTypeProvider.getTextToType();
+        this.textToType = prepare(textToType);
         this.gui = gui;
+        this.clock = clock;
+        this.throughput = new ThroughputRecorder(timeLimit, clock);
     }
 
     /**
@@ -45,31 +77,30 @@ public class TimeLimitTypingTestSentences implements TypingTester {
     @Override
     public void startTest() {
         startTime = System.currentTimeMillis();
+        startNanos = clock.nanoTime();
+        throughput.start();
         displayNextSentence();
 
         // Schedule a task to complete the test when the time limit is reached
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                SwingUtilities.invokeLater(() -> {
-                    result = completeTest();
-                    gui.completeTest();
-                });
+        clock.schedule(() -> {
+            result = completeTest();
+            if (gui != null) {
+                gui.completeTest();
             }
         }, timeLimit);
-
     }
 
     /**
      * Completes the typing test and calculates the result.
+     * Once the test is complete the same result is returned on every call.
      *
      * @return the result of the typing test
      */
     @Override
     public Result completeTest() {
-        long elapsedTime = System.currentTimeMillis() - startTime;
-        result = new Result(elapsedTime, correctWords, totalWords);
+        if (result == null) {
+            result = throughput.toResult(correctWords, totalWords);
+        }
         return result;
     }
 
@@ -83,57 +114,67 @@ public class TimeLimitTypingTestSentences implements TypingTester {
         return startTime;
     }
 
+    /**
+     * Gets the time since the test started.
+     *
+     * @return the elapsed time in nanoseconds, or 0 if the test has not started
+     */
+    @Override
+    public long getElapsedNanos() {
+        long start = startNanos;
+        return start < 0 ? 0 : clock.nanoTime() - start;
+    }
+
+    /**
+     * Gets the counts of the test so far.
+     *
+     * @return the latest snapshot of the progress
+     */
+    @Override
+    public TestProgress getProgress() {
+        return progress;
+    }
+
     /**
      * Displays the next sentence to type and sets up the input action.
      */
     private void displayNextSentence() {
         // Check if the time limit is reached or there are no more sentences to display
-        if (System.currentTimeMillis() - startTime > timeLimit || textToType.isEmpty()) {
+        if (clock.nanoTime() - startNanos > timeLimit * 1_000_000L || textToType.isEmpty()) {
             return;
         }
-        String sentence = textToType.removeFirst();
+        GraphemeText sentence = textToType.removeFirst();
 
         // Update the display area with the next sentence
-        SwingUtilities.invokeLater(() -> {
-            JTextArea textArea = ((GUIInputProvider) inputProvider).getDisplayArea();
-            textArea.setText(sentence);
-        });
+        inputProvider.displayText(sentence.text());
+
+        // Check on every keystroke that the input is still on track
+        inputProvider.setTypingAction(typed -> inputProvider.setInputValid(sentence.isPrefix(typed)));
 
         // Set the action to be performed when the submit button is clicked
         inputProvider.setSubmitAction(e -> {
             String userInput = inputProvider.getUserInput();
-            totalWords += countWords(sentence);
-            correctWords += countCorrectWords(sentence, userInput);
+            int correct = sentence.countCorrectWords(userInput);
+            totalWords += sentence.wordCount();
+            correctWords += correct;
+            progress = progress.after(correct, sentence.wordCount());
+            throughput.record(GraphemeText.countTyped(userInput) + 1, sentence.countCorrectGraphemes(userInput));
             displayNextSentence();
         });
     }
 
     /**
-     * Counts the number of words in a given text.
+     * Prepares the sentences for comparison before the test starts,
+     * so no normalisation or boundary analysis happens while the user types.
      *
-     * @param text the text to count words in
-     * @return the number of words in the text
+     * @param sentences the sentences to type
+     * @return the prepared sentences
      */
-    private int countWords(String text) {
-        return text.split("\\s+").length;
-    }
-
-    /**
-     * Counts the number of correct words in the user's input compared to the expected text.
-     *
-     * @param expected the expected text
-     * @param actual the user's input
-     * @return the number of correct words
-     */
-    private int countCorrectWords(String expected, String actual) {
-        String[] expectedWords = expected.split("\\s+");
-        String[] actualWords = actual.split("\\s+");
-        int count = 0;
-        for (int i = 0; i < Math.min(expectedWords.length, actualWords.length); i++) {
-            if (expectedWords[i].equals(actualWords[i])) {
-                count++;
-            }
+    private static List<GraphemeText> prepare(List<String> sentences) {
+        List<GraphemeText> prepared = new ArrayList<>(sentences.size());
+        for (String sentence : sentences) {
+            prepared.add(GraphemeText.of(sentence));
         }
-        return count;
+        return prepared;
     }
 }
\ No newline at end of file
@@ -1,32 +1,39 @@
 package GuiTypingTest.Testers;
 
 import GuiTypingTest.InputProviders.InputProvider;
-import GuiTypingTest.InputProviders.GUIInputProvider;
 import GuiTypingTest.OutputProviders.TextToTypeProvider;
 import GuiTypingTest.Result;
+import GuiTypingTest.Text.GraphemeText;
+import GuiTypingTest.Text.WordDawg;
 import GuiTypingTest.TypingTesterGUI;
 
-import javax.swing.*;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * TimeLimitTypingTestWords is a typing test that measures typing speed and accuracy
  * for individual words within a specified time limit.
+ * The words of the test are put in a {@link WordDawg} before it starts, and each word is
+ * known by its position there, so checking the input on every keystroke and scoring it
+ * on submission are walks down the graph as long as the input, with no string comparison.
  */
 public class TimeLimitTypingTestWords implements TypingTester {
     private final InputProvider inputProvider;
-    private final List<String> textToType;
+    private final List<GraphemeText> textToType;
+    private final WordDawg dictionary;
     private final long timeLimit;
     private long startTime;
+    private volatile long startNanos = -1;
+    private volatile TestProgress progress = TestProgress.NONE;
     private int correctWords;
     private int totalWords;
     private Result result;
     private final TypingTesterGUI gui;
+    private final ThroughputRecorder throughput;
+    private final TestClock clock;
 
     /**
-     * Constructs a new TimeLimitTypingTestWords.
+     * Constructs a new TimeLimitTypingTestWords that runs on the system clock.
      *
      * @param textToTypeProvider the provider for the text to type
      * @param inputProvider      the provider for user input
@@ -34,10 +41,40 @@ public class TimeLimitTypingTestWords implements TypingTester {
      * @param gui                the GUI for the typing tester
      */
     public TimeLimitTypingTestWords(TextToTypeProvider textToTypeProvider, InputProvider inputProvider, long timeLimit, TypingTesterGUI gui) {
+        this(textToTypeProvider, inputProvider, timeLimit, gui, new SystemTestClock());
+    }
+
+    /**
+     * Constructs a new TimeLimitTypingTestWords.
+     *
+     * @param textToTypeProvider the provider for the text to type
+     * @param inputProvider      the provider for user input
+     * @param timeLimit          the time limit for the test
+     * @param gui                the GUI for the typing tester, or null when no GUI is shown
+     * @param clock              the clock the test runs on
+     */
+    public TimeLimitTypingTestWords(TextToTypeProvider textToTypeProvider, InputProvider inputProvider, long timeLimit, TypingTesterGUI gui, TestClock clock) {
+        this(textToTypeProvider.getTextToType(), inputProvider, timeLimit, gui, clock);
+    }
+
+    /**
+     * Constructs a new TimeLimitTypingTestWords from text that has already been generated,
+     * such as the text of a saved test plan, so no provider is needed.
+     *
+     * @param textToType    the text to type
+     * @param inputProvider the provider for user input
+     * @param timeLimit     the time limit for the test
+     * @param gui           the GUI for the typing tester, or null when no GUI is shown
+     * @param clock         the clock the test runs on
+     */
+    public TimeLimitTypingTestWords(List<String> textToType, InputProvider inputProvider, long timeLimit, TypingTesterGUI gui, TestClock clock) {
         this.inputProvider = inputProvider;
         this.timeLimit = timeLimit;
-        this.textToType = textToTypeProvider.getTextToType();
+        this.textToType = prepare(textToType);
+        this.dictionary = new WordDawg(this.textToType.stream().map(GraphemeText::text).toList());
         this.gui = gui;
+        this.clock = clock;
+        this.throughput = new ThroughputRecorder(timeLimit, clock);
     }
 
     /**
@@ -46,31 +83,30 @@ public class TimeLimitTypingTestWords implements TypingTester {
     @Override
     public void startTest() {
         startTime = System.currentTimeMillis();
+        startNanos = clock.nanoTime();
+        throughput.start();
         displayNextWord();
 
         // Schedule a task to complete the test when the time limit is reached
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                SwingUtilities.invokeLater(() -> {
-                    result = completeTest();
-                    gui.completeTest();
-                });
+        clock.schedule(() -> {
+            result = completeTest();
+            if (gui != null) {
+                gui.completeTest();
             }
         }, timeLimit);
-
     }
 
     /**
      * Completes the typing test and calculates the result.
+     * Once the test is complete the same result is returned on every call.
      *
      * @return the result of the typing test
      */
     @Override
     public Result completeTest() {
-        long elapsedTime = System.currentTimeMillis() - startTime;
-        result = new Result(elapsedTime, correctWords, totalWords);
+        if (result == null) {
+            result = throughput.toResult(correctWords, totalWords);
+        }
         return result;
     }
 
@@ -84,30 +120,96 @@ public class TimeLimitTypingTestWords implements TypingTester {
         return startTime;
     }
 
+    /**
+     * Gets the time since the test started.
+     *
+     * @return the elapsed time in nanoseconds, or 0 if the test has not started
+     */
+    @Override
+    public long getElapsedNanos() {
+        long start = startNanos;
+        return start < 0 ? 0 : clock.nanoTime() - start;
+    }
+
+    /**
+     * Gets the counts of the test so far.
+     *
+     * @return the latest snapshot of the progress
+     */
+    @Override
+    public TestProgress getProgress() {
+        return progress;
+    }
+
     /**
      * Displays the next word to type and sets up the input action.
      */
     private void displayNextWord() {
         // Check if the time limit is reached or there are no more words to display
-        if (System.currentTimeMillis() - startTime > timeLimit || textToType.isEmpty()) {
+        if (clock.nanoTime() - startNanos > timeLimit * 1_000_000L || textToType.isEmpty()) {
             return;
         }
-        String word = textToType.removeFirst();
+        GraphemeText word = textToType.removeFirst();
+        int index = dictionary.indexOf(word.text());
 
         // Update the display area with the next word
-        SwingUtilities.invokeLater(() -> {
-            JTextArea textArea = ((GUIInputProvider) inputProvider).getDisplayArea();
-            textArea.setText(word);
-        });
+        inputProvider.displayText(word.text());
+
+        // Check on every keystroke that the input is still on track
+        inputProvider.setTypingAction(typed -> inputProvider.setInputValid(isPrefix(word, index, typed)));
 
         // Set the action to be performed when the submit button is clicked
         inputProvider.setSubmitAction(e -> {
             String userInput = inputProvider.getUserInput();
             totalWords++; // Increment totalWords by 1 for each word processed
-            if (word.equals(userInput)) {
+            boolean correct = matches(word, index, userInput);
+            progress = progress.after(correct ? 1 : 0, 1);
+            if (correct) {
                 correctWords++;
+                throughput.record(GraphemeText.countTyped(userInput) + 1, word.graphemeCount() + 1);
+            } else {
+                throughput.record(GraphemeText.countTyped(userInput) + 1, 0);
             }
             displayNextWord();
         });
     }
+
+    /**
+     * Checks whether the user's input so far is the start of a word.
+     *
+     * @param word  the word to type
+     * @param index the position of the word in the dictionary, or -1 if it is not there
+     * @param input the user's input so far
+     * @return true if the input can still become the word
+     */
+    private boolean isPrefix(GraphemeText word, int index, String input) {
+        return index < 0 ? word.isPrefix(input) : dictionary.isPrefixOf(GraphemeText.normalize(input), index);
+    }
+
+    /**
+     * Checks whether the user's input is exactly a word.
+     *
+     * @param word  the word to type
+     * @param index the position of the word in the dictionary, or -1 if it is not there
+     * @param input the user's input
+     * @return true if the input matches the word
+     */
+    private boolean matches(GraphemeText word, int index, String input) {
+        return index < 0 ? word.matches(input) : dictionary.indexOf(GraphemeText.normalize(input)) == index;
+    }
+
+    /**
+     * Prepares the words for comparison before the test starts,
+     * so no normalisation or boundary analysis happens while the user types.
+     *
+     * @param words the words to type
+     * @return the prepared words
+     */
+    private static List<GraphemeText> prepare(List<String> words) {
+        List<GraphemeText> prepared = new ArrayList<>(words.size());
+        for (String word : words) {
+            prepared.add(GraphemeText.of(word));
+        }
+        return prepared;
+    }
 }
\ No newline at end of file
@@ -27,4 +27,19 @@ public interface TypingTester {
      * @return the start time in milliseconds since epoch
      */
     long getStartTime();
+
+    /**
+     * Gets the time since the typing test started, on the clock the test runs on.
+     *
+     * @return the elapsed time in nanoseconds, or 0 if the test has not started
+     */
+    long getElapsedNanos();
+
+    /**
+     * Gets the counts of the test so far. This can be called from any thread at any time
+     * and never waits or slows the test down.
+     *
+     * @return the latest snapshot of the progress
+     */
+    TestProgress getProgress();
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package GuiTypingTest.Text;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * CompactCorpus reads a sentence corpus written by {@link CompactCorpusWriter}.
+ * <p>
+ * A compact corpus is a header, the NFC-normalised sentences as UTF-8 one after another,
+ * and an index of where each sentence starts:
+ * <pre>
+ * int   magic number
+ * short format version
+ * short reserved
+ * int   sentence count
+ * long  offset of the index
+ * bytes the sentences
+ * long  offset of each sentence, plus the end of the last one
+ * </pre>
+ * The file is memory-mapped and sentences are decoded only when they are picked,
+ * so a corpus built from a large book costs almost nothing on the heap.
+ */
+public class CompactCorpus {
+    /**
+     * The magic number at the start of every compact corpus ("TTCP").
+     */
+    static final int MAGIC = 0x54544350;
+
+    /**
+     * The current format version.
+     */
+    static final short VERSION = 1;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    static final int HEADER_BYTES = 4 + 2 + 2 + 4 + 8;
+
+    /**
+     * The file extension of compact corpora.
+     */
+    public static final String EXTENSION = ".ttc";
+
+    private final MappedByteBuffer mapped;
+    private final int count;
+    private final int indexOffset;
+    private final int version;
+
+    /**
+     * Constructs a new CompactCorpus, mapping the file.
+     *
+     * @param file the corpus file
+     * @throws IOException if the file cannot be read or is not a compact corpus
+     */
+    public CompactCorpus(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Corpus too large to map: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a compact corpus: " + file);
+        }
+        if (mapped.getShort(4) != VERSION) {
+            throw new IOException("Unsupported compact corpus version " + mapped.getShort(4) + ": " + file);
+        }
+        count = mapped.getInt(8);
+        long index = mapped.getLong(12);
+        if (count < 0 || index < HEADER_BYTES || index + 8L * (count + 1) > mapped.limit()) {
+            throw new IOException("Corrupt compact corpus: " + file);
+        }
+        indexOffset = (int) index;
+
+        CRC32 crc = new CRC32();
+        crc.update(mapped.duplicate());
+        version = (int) crc.getValue();
+    }
+
+    /**
+     * Checks whether a file is named like a compact corpus.
+     *
+     * @param file the file
+     * @return true if the file has the compact corpus extension
+     */
+    public static boolean isCompactCorpus(Path file) {
+        return file.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Gets the number of sentences in the corpus.
+     *
+     * @return the number of sentences
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the version of the corpus.
+     *
+     * @return the CRC32 of the whole file
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Gets a sentence by its position in the corpus.
+     *
+     * @param index the position of the sentence
+     * @return the sentence
+     */
+    public String get(int index) {
+        int start = (int) mapped.getLong(indexOffset + 8 * index);
+        int end = (int) mapped.getLong(indexOffset + 8 * (index + 1));
+        byte[] bytes = new byte[end - start];
+        mapped.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Picks distinct sentences at random, in random order.
+     *
+     * @param n      the number of sentences wanted
+     * @param random the source of randomness
+     * @return up to n sentences, fewer if the corpus is smaller
+     */
+    public List<String> sample(int n, Random random) {
+        List<String> sentences = new ArrayList<>();
+        for (int index : Corpus.sampleIndices(count, n, random)) {
+            sentences.add(get(index));
+        }
+        return sentences;
+    }
+}
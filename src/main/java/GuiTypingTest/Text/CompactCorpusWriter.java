@@ -0,0 +1,115 @@
+package GuiTypingTest.Text;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static GuiTypingTest.Text.CompactCorpus.*;
+
+/**
+ * CompactCorpusWriter writes sentences to a compact corpus one at a time.
+ * Sentences are streamed to the file through a small buffer; only their offsets are kept
+ * in memory until {@link #close()} appends the index and fills in the header.
+ * See {@link CompactCorpus} for the layout of the file.
+ */
+public class CompactCorpusWriter implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private long[] offsets = new long[1024];
+    private int count;
+    private long position = HEADER_BYTES;
+
+    /**
+     * Constructs a new CompactCorpusWriter, creating or replacing the file.
+     *
+     * @param file the corpus file to write
+     * @throws IOException if the file cannot be created
+     */
+    public CompactCorpusWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(HEADER_BYTES); // the header is written once the index is known
+    }
+
+    /**
+     * Appends a sentence.
+     *
+     * @param utf8 the NFC-normalised sentence encoded as UTF-8
+     * @throws IOException if the sentence cannot be written
+     */
+    public void add(byte[] utf8) throws IOException {
+        if (position + utf8.length > Integer.MAX_VALUE) {
+            throw new IOException("Corpus larger than 2 GB");
+        }
+        if (count + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[count++] = position;
+        position += utf8.length;
+
+        int written = 0;
+        while (written < utf8.length) {
+            int n = Math.min(buffer.remaining(), utf8.length - written);
+            buffer.put(utf8, written, n);
+            written += n;
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of sentences written so far.
+     *
+     * @return the number of sentences
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes the index and header, then closes the file.
+     *
+     * @throws IOException if the corpus cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = position;
+            offsets[count] = position;
+            for (int i = 0; i <= count; i++) {
+                if (buffer.remaining() < 8) {
+                    drain();
+                }
+                buffer.putLong(offsets[i]);
+            }
+            drain();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count).putLong(indexOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes out the buffered bytes.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,104 @@
+package GuiTypingTest.Text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Class to load the text resources used by the providers.
+ * Lines are read as UTF-8 and normalised to NFC once, at load time,
+ * so text in any language compares the same way as English text.
+ */
+public class Corpus {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Corpus() {
+    }
+
+    /**
+     * Reads the non-blank lines of a UTF-8 text file, normalised to NFC.
+     *
+     * @param path the file to read
+     * @return a modifiable list of the normalised lines
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readLines(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            // Drop the byte order mark some editors put at the start of UTF-8 files
+            if (lines.isEmpty() && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (!line.isBlank()) {
+                lines.add(GraphemeText.normalize(line.strip()));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Estimates the heap used by a list of strings, counting each string's object
+     * header, array header and characters plus the list's reference to it.
+     *
+     * @param lines the strings to measure
+     * @return the estimated size in bytes
+     */
+    public static long estimateSize(List<String> lines) {
+        long size = 0;
+        for (String line : lines) {
+            size += 56 + 2L * line.length();
+        }
+        return size;
+    }
+
+    /**
+     * Picks distinct positions in a corpus at random, in random order, using Floyd's
+     * sampling algorithm so only the picked positions are ever touched.
+     * The same random seed always picks the same positions in the same order.
+     *
+     * @param size   the number of entries in the corpus
+     * @param n      the number of positions wanted
+     * @param random the source of randomness
+     * @return up to n distinct positions, fewer if the corpus is smaller
+     */
+    public static List<Integer> sampleIndices(int size, int n, Random random) {
+        int count = Math.min(size, n);
+        Set<Integer> chosen = new HashSet<>();
+        List<Integer> indices = new ArrayList<>(count);
+        for (int j = size - count; j < size; j++) {
+            int index = random.nextInt(j + 1);
+            if (!chosen.add(index)) {
+                chosen.add(j);
+                index = j;
+            }
+            indices.add(index);
+        }
+        Collections.shuffle(indices, random); //shuffle so the order does not follow the sampling
+        return indices;
+    }
+
+    /**
+     * Computes a version number for a corpus from its contents,
+     * so text generated from a seed can be tied to the exact corpus it came from.
+     *
+     * @param lines the lines of the corpus
+     * @return the CRC32 of the lines
+     */
+    public static int version(List<String> lines) {
+        CRC32 crc = new CRC32();
+        for (String line : lines) {
+            crc.update(line.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return (int) crc.getValue();
+    }
+}
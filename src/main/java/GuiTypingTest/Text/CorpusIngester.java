@@ -0,0 +1,394 @@
+package GuiTypingTest.Text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.BreakIterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CorpusIngester turns a large plain-text file, such as a book, into a {@link CompactCorpus}.
+ * <p>
+ * The file is cut into chunks that are memory-mapped and split into sentences on a pool of
+ * threads. A chunk starts at a paragraph break, so no sentence is cut in two. In the rare text with
+ * no paragraph break in a whole chunk, the cut falls back to a full stop followed by a capital letter,
+ * passing over abbreviations and initials such as "Mr." and "J.". Paragraphs are split into
+ * sentences the same way, so "Mr. Smith" stays in one sentence; an abbreviation that is not a
+ * short capitalised word, such as "etc.", can still end a sentence early. Hard-wrapped lines
+ * are joined, typographic quotes and dashes are replaced with ones found on a keyboard, and
+ * sentences that are too short, too long or hold characters that are hard to type are dropped.
+ * Chunks are written out in order and only a few are in flight at once, so memory stays bounded
+ * however large the input is. The corpus is written to a temporary file that replaces the output
+ * only once it is complete, so a failed ingestion never leaves a corpus that looks whole but is not.
+ */
+public class CorpusIngester {
+    /**
+     * The number of bytes of input handed to a thread at a time.
+     */
+    static final int CHUNK_BYTES = 2 << 20;
+
+    /**
+     * The punctuation allowed in a sentence besides letters, digits and spaces.
+     */
+    private static final String PUNCTUATION = ".,;:!?'\"-()";
+
+    /**
+     * The most letters in a capitalised word taken to be an abbreviation or initial when followed by a full stop.
+     */
+    private static final int MAX_ABBREVIATION_LETTERS = 3;
+
+    private final int minLength;
+    private final int maxLength;
+    private final int threads;
+
+    /**
+     * Constructs a new CorpusIngester.
+     *
+     * @param minLength the fewest characters a sentence may have
+     * @param maxLength the most characters a sentence may have
+     * @param threads   the number of threads splitting sentences
+     */
+    public CorpusIngester(int minLength, int maxLength, int threads) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Constructs a new CorpusIngester keeping sentences of 20 to 200 characters
+     * and using every available processor.
+     */
+    public CorpusIngester() {
+        this(20, 200, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ingests a text file into a compact corpus.
+     *
+     * @param input  the UTF-8 text file to read
+     * @param output the corpus file to write
+     * @return the number of sentences written
+     * @throws IOException if the input cannot be read or the corpus cannot be written
+     */
+    public int ingest(Path input, Path output) throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "corpus", ".tmp");
+        try {
+            int count = write(input, temporary);
+            Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Splits the input into sentences on the thread pool and writes them to a corpus file.
+     *
+     * @param input  the UTF-8 text file to read
+     * @param output the corpus file to write
+     * @return the number of sentences written
+     * @throws IOException if the input cannot be read or the corpus cannot be written
+     */
+    private int write(Path input, Path output) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             CompactCorpusWriter writer = new CompactCorpusWriter(output)) {
+            long size = channel.size();
+            long chunks = (size + CHUNK_BYTES - 1) / CHUNK_BYTES;
+
+            // Keep a couple of chunks per thread in flight and write them in order as they finish
+            ArrayDeque<Future<List<byte[]>>> pending = new ArrayDeque<>();
+            long next = 0;
+            while (next < chunks || !pending.isEmpty()) {
+                while (next < chunks && pending.size() < threads * 2) {
+                    long chunk = next++;
+                    pending.add(pool.submit(() -> splitChunk(channel, size, chunk)));
+                }
+                for (byte[] sentence : pending.remove().get()) {
+                    writer.add(sentence);
+                }
+            }
+            return writer.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Ingestion interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits one chunk of the input into sentences.
+     * The chunk runs from the cut point after its nominal start to the cut point after its
+     * nominal end, so neighbouring chunks meet exactly without overlapping.
+     *
+     * @param channel the input file
+     * @param size    the size of the input file
+     * @param chunk   the index of the chunk
+     * @return the kept sentences, NFC-normalised and encoded as UTF-8
+     * @throws IOException if the chunk cannot be read
+     */
+    private List<byte[]> splitChunk(FileChannel channel, long size, long chunk) throws IOException {
+        long start = chunk == 0 ? 0 : cutAfter(channel, size, chunk * CHUNK_BYTES);
+        long end = cutAfter(channel, size, (chunk + 1) * CHUNK_BYTES);
+        List<byte[]> sentences = new ArrayList<>();
+        if (start >= end) {
+            return sentences;
+        }
+
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        String text = decode(bytes);
+        if (chunk == 0 && text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+
+        BreakIterator boundaries = BreakIterator.getSentenceInstance(Locale.ROOT);
+        StringBuilder paragraph = new StringBuilder();
+        int lineStart = 0;
+        while (lineStart <= text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).strip();
+            if (line.isEmpty()) {
+                splitParagraph(paragraph, boundaries, sentences);
+            } else {
+                if (!paragraph.isEmpty()) {
+                    paragraph.append(' '); // join hard-wrapped lines
+                }
+                paragraph.append(line);
+            }
+            lineStart = lineEnd + 1;
+        }
+        splitParagraph(paragraph, boundaries, sentences);
+        return sentences;
+    }
+
+    /**
+     * Splits a paragraph into sentences, keeps those that pass the filters, and clears it.
+     *
+     * @param paragraph  the paragraph
+     * @param boundaries the sentence iterator to use
+     * @param sentences  the list to add kept sentences to
+     */
+    private void splitParagraph(StringBuilder paragraph, BreakIterator boundaries, List<byte[]> sentences) {
+        if (paragraph.isEmpty()) {
+            return;
+        }
+        String text = clean(paragraph);
+        paragraph.setLength(0);
+        boundaries.setText(text);
+        int start = boundaries.first();
+        for (int end = boundaries.next(); end != BreakIterator.DONE; end = boundaries.next()) {
+            if (end < text.length() && endsWithAbbreviation(text, end)) {
+                continue; // "Mr." and the like do not end a sentence, so run on to the next boundary
+            }
+            String sentence = GraphemeText.normalize(text.substring(start, end).strip());
+            if (accept(sentence)) {
+                sentences.add(sentence.getBytes(StandardCharsets.UTF_8));
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Checks whether the text before a sentence boundary ends with an abbreviation or initial:
+     * a capitalised word of up to {@value #MAX_ABBREVIATION_LETTERS} letters and a full stop.
+     *
+     * @param text the paragraph
+     * @param end  the boundary
+     * @return true if the boundary follows an abbreviation
+     */
+    private static boolean endsWithAbbreviation(String text, int end) {
+        int mark = end;
+        while (mark > 0 && text.charAt(mark - 1) == ' ') {
+            mark--;
+        }
+        if (mark == 0 || text.charAt(mark - 1) != '.') {
+            return false;
+        }
+        int wordStart = mark - 1;
+        while (wordStart > 0 && Character.isLetter(text.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        int letters = mark - 1 - wordStart;
+        return letters > 0 && letters <= MAX_ABBREVIATION_LETTERS && Character.isUpperCase(text.charAt(wordStart))
+                && (wordStart == 0 || !Character.isLetterOrDigit(text.charAt(wordStart - 1)));
+    }
+
+    /**
+     * Collapses runs of whitespace and replaces typographic punctuation with keyboard characters.
+     *
+     * @param paragraph the paragraph
+     * @return the cleaned paragraph
+     */
+    private static String clean(CharSequence paragraph) {
+        StringBuilder text = new StringBuilder(paragraph.length());
+        boolean space = false;
+        for (int i = 0; i < paragraph.length(); i++) {
+            char c = paragraph.charAt(i);
+            if (Character.isWhitespace(c) || c == '\u00A0') {
+                space = true;
+                continue;
+            }
+            if (space && !text.isEmpty()) {
+                text.append(' ');
+            }
+            space = false;
+            switch (c) {
+                case '\u2018', '\u2019' -> text.append('\'');
+                case '\u201C', '\u201D' -> text.append('"');
+                case '\u2013', '\u2014' -> text.append('-');
+                case '\u2026' -> text.append("...");
+                default -> text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Checks whether a sentence is worth typing: within the length limits, starting with a capital
+     * letter or quote, ending with sentence punctuation, and made only of letters, digits, spaces
+     * and common punctuation.
+     *
+     * @param sentence the sentence
+     * @return true to keep the sentence
+     */
+    boolean accept(String sentence) {
+        int length = sentence.codePointCount(0, sentence.length());
+        if (length == 0 || length < minLength || length > maxLength) {
+            return false;
+        }
+        int first = sentence.codePointAt(0);
+        if (!Character.isUpperCase(first) && !Character.isTitleCase(first) && first != '"' && first != '\'') {
+            return false;
+        }
+        char last = sentence.charAt(sentence.length() - 1);
+        if (".!?\"')".indexOf(last) < 0) {
+            return false;
+        }
+        return sentence.codePoints().allMatch(c -> Character.isLetterOrDigit(c) || c == ' '
+                || Character.getType(c) == Character.NON_SPACING_MARK || PUNCTUATION.indexOf(c) >= 0);
+    }
+
+    /**
+     * Finds where a chunk boundary near a position should fall: just after the first paragraph
+     * break in the following chunk's worth of bytes, or failing that just after the first full stop,
+     * question or exclamation mark followed by a space and a capital letter or quote that does not
+     * end an abbreviation or initial, or failing that at the first character start. The search only looks at bytes that are
+     * ASCII in UTF-8, so the cut can never land inside a multi-byte character.
+     *
+     * @param channel  the input file
+     * @param size     the size of the input file
+     * @param position the nominal boundary
+     * @return the position of the cut
+     * @throws IOException if the input cannot be read
+     */
+    static long cutAfter(FileChannel channel, long size, long position) throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        int length = (int) Math.min(CHUNK_BYTES, size - position);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+        boolean newline = false;
+        int sentenceEnd = -1;
+        for (int i = 0; i < length; i++) {
+            byte b = window.get(i);
+            if (b == '\n') {
+                if (newline) {
+                    return position + i + 1;
+                }
+                newline = true;
+            } else if (b != ' ' && b != '\t' && b != '\r') {
+                newline = false;
+                if (sentenceEnd < 0 && (b == '.' || b == '!' || b == '?') && endsSentence(window, i, length)) {
+                    sentenceEnd = i + 1;
+                }
+            }
+        }
+        if (sentenceEnd >= 0) {
+            return position + sentenceEnd;
+        }
+        int i = 0;
+        while (i < length && (window.get(i) & 0xC0) == 0x80) {
+            i++; // skip the continuation bytes of a character cut in half
+        }
+        return position + i;
+    }
+
+    /**
+     * Checks whether a full stop, question or exclamation mark is likely to end a sentence:
+     * it is followed by whitespace and then a capital letter or quote, and for a full stop,
+     * the word before it is not a capitalised word of up to {@value #MAX_ABBREVIATION_LETTERS} letters,
+     * like "Mr", "Dr", "St" or an initial.
+     *
+     * @param window the bytes being searched
+     * @param mark   the index of the mark
+     * @param length the number of bytes in the window
+     * @return true if a sentence probably ends at the mark
+     */
+    private static boolean endsSentence(ByteBuffer window, int mark, int length) {
+        int next = mark + 1;
+        if (next >= length || (window.get(next) != ' ' && window.get(next) != '\n' && window.get(next) != '\r')) {
+            return false;
+        }
+        while (next < length && (window.get(next) == ' ' || window.get(next) == '\n' || window.get(next) == '\r')) {
+            next++;
+        }
+        if (next >= length) {
+            return false;
+        }
+        byte following = window.get(next);
+        if (!(following >= 'A' && following <= 'Z') && following != '"' && following != '\'') {
+            return false;
+        }
+        if (window.get(mark) != '.') {
+            return true;
+        }
+        int wordStart = mark;
+        while (wordStart > 0 && Character.isLetter(window.get(wordStart - 1))) {
+            wordStart--;
+        }
+        int wordLength = mark - wordStart;
+        boolean capitalised = wordLength > 0 && window.get(wordStart) >= 'A' && window.get(wordStart) <= 'Z';
+        return !(capitalised && wordLength <= MAX_ABBREVIATION_LETTERS);
+    }
+
+    /**
+     * Decodes UTF-8, replacing malformed bytes rather than failing.
+     *
+     * @param bytes the bytes to decode
+     * @return the text
+     * @throws CharacterCodingException never, as malformed input is replaced
+     */
+    private static String decode(ByteBuffer bytes) throws CharacterCodingException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = decoder.decode(bytes);
+        return chars.toString();
+    }
+}
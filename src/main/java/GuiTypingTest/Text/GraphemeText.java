@@ -0,0 +1,236 @@
+package GuiTypingTest.Text;
+
+import java.text.BreakIterator;
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * GraphemeText is a piece of text to type, prepared for comparison with user input.
+ * The text is normalised to NFC once, and the boundaries of its graphemes (user-perceived
+ * characters) and words are worked out up front and kept in int arrays.
+ * Comparing user input against it then needs no splitting, no regular expressions
+ * and no allocation when the input is already in NFC, whatever the language.
+ */
+public final class GraphemeText {
+    private final String text;
+    private final int graphemeCount;
+    private final int[] wordStarts;
+    private final int[] wordEnds;
+    private final int[] wordGraphemes;
+
+    /**
+     * Constructs a new GraphemeText from text that is already in NFC.
+     *
+     * @param text the normalised text
+     */
+    private GraphemeText(String text) {
+        this.text = text;
+
+        // Mark where each grapheme starts
+        boolean[] graphemeStart = new boolean[text.length() + 1];
+        BreakIterator graphemes = BreakIterator.getCharacterInstance();
+        graphemes.setText(text);
+        int count = 0;
+        for (int boundary = graphemes.first(); boundary != BreakIterator.DONE; boundary = graphemes.next()) {
+            graphemeStart[boundary] = true;
+            count++;
+        }
+        this.graphemeCount = Math.max(0, count - 1);
+
+        // Find the words, which are runs of non-whitespace code points
+        int words = 0;
+        int[] starts = new int[8];
+        int[] ends = new int[8];
+        int[] lengths = new int[8];
+        int i = 0;
+        while (i < text.length()) {
+            i = skipWhitespace(text, i);
+            if (i >= text.length()) {
+                break;
+            }
+            int end = skipWord(text, i);
+            if (words == starts.length) {
+                starts = Arrays.copyOf(starts, words * 2);
+                ends = Arrays.copyOf(ends, words * 2);
+                lengths = Arrays.copyOf(lengths, words * 2);
+            }
+            int wordGraphemeCount = 0;
+            for (int j = i; j < end; j++) {
+                if (graphemeStart[j]) {
+                    wordGraphemeCount++;
+                }
+            }
+            starts[words] = i;
+            ends[words] = end;
+            lengths[words] = wordGraphemeCount;
+            words++;
+            i = end;
+        }
+        this.wordStarts = Arrays.copyOf(starts, words);
+        this.wordEnds = Arrays.copyOf(ends, words);
+        this.wordGraphemes = Arrays.copyOf(lengths, words);
+    }
+
+    /**
+     * Prepares a piece of text, normalising it to NFC if it is not already.
+     *
+     * @param text the text to prepare
+     * @return the prepared text
+     */
+    public static GraphemeText of(String text) {
+        return new GraphemeText(normalize(text));
+    }
+
+    /**
+     * Normalises text to NFC, returning the same string if it is already normalised.
+     *
+     * @param text the text to normalise
+     * @return the text in NFC
+     */
+    public static String normalize(String text) {
+        return Normalizer.isNormalized(text, Normalizer.Form.NFC) ? text : Normalizer.normalize(text, Normalizer.Form.NFC);
+    }
+
+    /**
+     * Gets the normalised text.
+     *
+     * @return the text
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Gets the number of graphemes in the text.
+     *
+     * @return the number of graphemes
+     */
+    public int graphemeCount() {
+        return graphemeCount;
+    }
+
+    /**
+     * Gets the number of words in the text.
+     *
+     * @return the number of words
+     */
+    public int wordCount() {
+        return wordStarts.length;
+    }
+
+    /**
+     * Checks whether the user's input is exactly this text.
+     *
+     * @param input the user's input
+     * @return true if the input matches the text
+     */
+    public boolean matches(String input) {
+        return text.equals(normalize(input));
+    }
+
+    /**
+     * Checks whether the user's input so far is the start of this text,
+     * so a mistake can be shown as soon as it is typed.
+     *
+     * @param input the user's input so far
+     * @return true if the input can still become this text
+     */
+    public boolean isPrefix(String input) {
+        return text.startsWith(normalize(input));
+    }
+
+    /**
+     * Counts the words of the user's input that match the word in the same position of this text.
+     *
+     * @param input the user's input
+     * @return the number of correct words
+     */
+    public int countCorrectWords(String input) {
+        return scanCorrect(normalize(input), false);
+    }
+
+    /**
+     * Counts the graphemes in the correctly typed words of the user's input,
+     * with one extra grapheme per word for the separator that follows it.
+     *
+     * @param input the user's input
+     * @return the number of correct graphemes
+     */
+    public int countCorrectGraphemes(String input) {
+        return scanCorrect(normalize(input), true);
+    }
+
+    /**
+     * Counts the typed characters in the user's input as code points,
+     * so characters outside the Basic Multilingual Plane count once.
+     *
+     * @param input the user's input
+     * @return the number of typed characters
+     */
+    public static int countTyped(String input) {
+        return input.codePointCount(0, input.length());
+    }
+
+    /**
+     * Walks the words of the normalised input alongside the words of this text.
+     *
+     * @param input     the normalised user input
+     * @param graphemes true to count correct graphemes, false to count correct words
+     * @return the number of correct words or graphemes
+     */
+    private int scanCorrect(String input, boolean graphemes) {
+        int count = 0;
+        int position = 0;
+        for (int word = 0; word < wordStarts.length; word++) {
+            position = skipWhitespace(input, position);
+            if (position >= input.length()) {
+                break;
+            }
+            int end = skipWord(input, position);
+            int length = wordEnds[word] - wordStarts[word];
+            if (end - position == length && text.regionMatches(wordStarts[word], input, position, length)) {
+                count += graphemes ? wordGraphemes[word] + 1 : 1;
+            }
+            position = end;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first non-whitespace position at or after a position.
+     *
+     * @param s    the string to scan
+     * @param from the position to start at
+     * @return the position of the first non-whitespace code point, or the length of the string
+     */
+    private static int skipWhitespace(String s, int from) {
+        int i = from;
+        while (i < s.length()) {
+            int codePoint = s.codePointAt(i);
+            if (!Character.isWhitespace(codePoint)) {
+                break;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return i;
+    }
+
+    /**
+     * Finds the end of the word starting at a position.
+     *
+     * @param s    the string to scan
+     * @param from the position the word starts at
+     * @return the position after the last code point of the word
+     */
+    private static int skipWord(String s, int from) {
+        int i = from;
+        while (i < s.length()) {
+            int codePoint = s.codePointAt(i);
+            if (Character.isWhitespace(codePoint)) {
+                break;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,303 @@
+package GuiTypingTest.Text;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * SourceIndex is an index of the code snippets in a source tree, built by {@link SourceIndexer}.
+ * For every source file it keeps the path, modification time and size, and for every snippet
+ * only where it starts in its file and how long it is, so the index of a large tree takes a few
+ * bytes per snippet. A snippet is read from its file only when it is picked, as just its own bytes.
+ * <p>
+ * The index is saved as:
+ * <pre>
+ * int   magic number
+ * short format version
+ * short reserved
+ * int   file count
+ * int   snippet count
+ * for each file:    UTF path relative to the root, long modification time, long size, int snippet count
+ * for each snippet: int start offset in its file, int length in bytes
+ * int   CRC32 of everything before it
+ * </pre>
+ */
+public class SourceIndex {
+    /**
+     * The magic number at the start of every source index ("TTCI").
+     */
+    private static final int MAGIC = 0x54544349;
+
+    /**
+     * The current format version.
+     */
+    private static final short VERSION = 1;
+
+    private final Path root;
+    private final String[] paths;
+    private final long[] modified;
+    private final long[] sizes;
+    private final int[] firstSnippet;
+    private final int[] starts;
+    private final int[] lengths;
+    private final int version;
+
+    /**
+     * Constructs a new SourceIndex.
+     *
+     * @param root         the root of the source tree
+     * @param paths        the path of each file relative to the root, in order
+     * @param modified     the modification time of each file in milliseconds
+     * @param sizes        the size of each file in bytes
+     * @param firstSnippet the index of the first snippet of each file, plus the total number of snippets
+     * @param starts       the start offset of each snippet in its file
+     * @param lengths      the length of each snippet in bytes
+     */
+    SourceIndex(Path root, String[] paths, long[] modified, long[] sizes, int[] firstSnippet, int[] starts, int[] lengths) {
+        this.root = root;
+        this.paths = paths;
+        this.modified = modified;
+        this.sizes = sizes;
+        this.firstSnippet = firstSnippet;
+        this.starts = starts;
+        this.lengths = lengths;
+        this.version = checksum();
+    }
+
+    /**
+     * Gets the number of snippets.
+     *
+     * @return the number of snippets
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Gets the number of source files.
+     *
+     * @return the number of files
+     */
+    public int fileCount() {
+        return paths.length;
+    }
+
+    /**
+     * Gets the version of the index: a CRC32 of every path, modification time and snippet offset,
+     * so it changes whenever the snippets might have.
+     *
+     * @return the version
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Reads a snippet from its file, exactly as it is there.
+     *
+     * @param snippet the index of the snippet
+     * @return the snippet, or null if its file can no longer be read
+     */
+    public String get(int snippet) {
+        int file = fileOf(snippet);
+        ByteBuffer bytes = ByteBuffer.allocate(lengths[snippet]);
+        try (FileChannel channel = FileChannel.open(root.resolve(paths[file]), StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, starts[snippet] + bytes.position()) < 0) {
+                    return null; // the file has shrunk since it was indexed
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the file a snippet is in.
+     *
+     * @param snippet the index of the snippet
+     * @return the index of the file
+     */
+    private int fileOf(int snippet) {
+        int low = 0;
+        int high = paths.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (firstSnippet[middle] <= snippet) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the root of the source tree.
+     *
+     * @return the root
+     */
+    Path root() {
+        return root;
+    }
+
+    /**
+     * Gets the path of a file relative to the root.
+     *
+     * @param file the index of the file
+     * @return the relative path
+     */
+    String path(int file) {
+        return paths[file];
+    }
+
+    /**
+     * Gets the modification time a file had when it was indexed.
+     *
+     * @param file the index of the file
+     * @return the modification time in milliseconds
+     */
+    long modified(int file) {
+        return modified[file];
+    }
+
+    /**
+     * Gets the size a file had when it was indexed.
+     *
+     * @param file the index of the file
+     * @return the size in bytes
+     */
+    long size(int file) {
+        return sizes[file];
+    }
+
+    /**
+     * Copies the snippets of a file into arrays, for reusing them in a new index.
+     *
+     * @param file the index of the file
+     * @return the start offset and length of each snippet of the file, one after the other
+     */
+    int[] snippetsOf(int file) {
+        int count = firstSnippet[file + 1] - firstSnippet[file];
+        int[] snippets = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            snippets[2 * i] = starts[firstSnippet[file] + i];
+            snippets[2 * i + 1] = lengths[firstSnippet[file] + i];
+        }
+        return snippets;
+    }
+
+    /**
+     * Saves the index. The file is written in full before it replaces the old one.
+     *
+     * @param file the index file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "sourceindex", ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(paths.length);
+            out.writeInt(starts.length);
+            for (int i = 0; i < paths.length; i++) {
+                out.writeUTF(paths[i]);
+                out.writeLong(modified[i]);
+                out.writeLong(sizes[i]);
+                out.writeInt(firstSnippet[i + 1] - firstSnippet[i]);
+            }
+            for (int i = 0; i < starts.length; i++) {
+                out.writeInt(starts[i]);
+                out.writeInt(lengths[i]);
+            }
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a saved index.
+     *
+     * @param file the index file
+     * @param root the root of the source tree the index is of
+     * @return the index
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public static SourceIndex load(Path file, Path root) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a source index: " + file);
+            }
+            in.readShort();
+            int fileCount = in.readInt();
+            int snippetCount = in.readInt();
+            if (fileCount < 0 || snippetCount < 0) {
+                throw new IOException("Damaged source index: " + file);
+            }
+            String[] paths = new String[fileCount];
+            long[] modified = new long[fileCount];
+            long[] sizes = new long[fileCount];
+            int[] firstSnippet = new int[fileCount + 1];
+            for (int i = 0; i < fileCount; i++) {
+                paths[i] = in.readUTF();
+                modified[i] = in.readLong();
+                sizes[i] = in.readLong();
+                firstSnippet[i + 1] = firstSnippet[i] + in.readInt();
+            }
+            if (firstSnippet[fileCount] != snippetCount) {
+                throw new IOException("Damaged source index: " + file);
+            }
+            int[] starts = new int[snippetCount];
+            int[] lengths = new int[snippetCount];
+            for (int i = 0; i < snippetCount; i++) {
+                starts[i] = in.readInt();
+                lengths[i] = in.readInt();
+            }
+            // The checksum covers everything read so far, so take it before reading the stored one
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Damaged source index: " + file);
+            }
+            return new SourceIndex(root, paths, modified, sizes, firstSnippet, starts, lengths);
+        }
+    }
+
+    /**
+     * Calculates the version of the index.
+     *
+     * @return the CRC32 of the paths, modification times, sizes and snippet offsets
+     */
+    private int checksum() {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        for (int i = 0; i < paths.length; i++) {
+            crc.update(paths[i].getBytes(StandardCharsets.UTF_8));
+            buffer.clear();
+            buffer.putLong(modified[i]).putLong(sizes[i]).putInt(firstSnippet[i + 1] - firstSnippet[i]).flip();
+            crc.update(buffer);
+        }
+        for (int i = 0; i < starts.length; i++) {
+            buffer.clear();
+            buffer.putInt(starts[i]).putInt(lengths[i]).flip();
+            crc.update(buffer);
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,472 @@
+package GuiTypingTest.Text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.logging.*;
+
+/**
+ * SourceIndexer finds the snippets of code worth typing in a source tree.
+ * <p>
+ * The tree is walked once for the path, modification time and size of each source file.
+ * Files that are unchanged since the previous index keep their snippets without being opened;
+ * the rest are memory-mapped and scanned in parallel. A snippet is a run of whole lines
+ * between {@link #MIN_SNIPPET_BYTES} and {@link #MAX_SNIPPET_BYTES} long that starts where a statement
+ * starts, ends where the indentation comes back to where it started, and closes every brace it opens,
+ * so it reads as a complete statement, method or block. Snippets are kept byte for byte, indentation included; lines that cannot be
+ * typed faithfully, such as very long lines or lines with trailing whitespace, are never part of one.
+ */
+public class SourceIndexer {
+    /**
+     * The shortest snippet in bytes.
+     */
+    static final int MIN_SNIPPET_BYTES = 80;
+
+    /**
+     * The longest snippet in bytes.
+     */
+    static final int MAX_SNIPPET_BYTES = 400;
+
+    /**
+     * The longest line, in columns, a snippet may contain.
+     */
+    static final int MAX_LINE_COLUMNS = 100;
+
+    /**
+     * The largest file that is indexed; larger files are usually generated.
+     */
+    static final long MAX_FILE_BYTES = 1 << 20;
+
+    /**
+     * The number of columns a tab advances to, for measuring indentation.
+     */
+    private static final int TAB_COLUMNS = 4;
+
+    /**
+     * The file extensions of source files.
+     */
+    private static final Set<String> EXTENSIONS = Set.of(
+            "java", "kt", "scala", "groovy", "c", "h", "cc", "cpp", "hpp", "cs", "go", "rs", "swift",
+            "js", "jsx", "ts", "tsx", "py", "rb", "php", "sh", "sql", "lua", "dart");
+
+    /**
+     * The directories skipped because they hold dependencies or build output.
+     */
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of("node_modules", "target", "build", "out", "dist", "vendor");
+
+    /**
+     * Record of a source file found in the tree.
+     *
+     * @param path     the path relative to the root, with '/' separators
+     * @param modified the modification time in milliseconds
+     * @param size     the size in bytes
+     */
+    private record SourceFile(String path, long modified, long size) {
+    }
+
+    /**
+     * Indexes a source tree, reusing the snippets of files unchanged since a previous index.
+     *
+     * @param root     the root of the source tree
+     * @param previous the previous index of the same tree, or null to scan every file
+     * @return the new index
+     * @throws IOException if the tree cannot be walked
+     */
+    public SourceIndex index(Path root, SourceIndex previous) throws IOException {
+        List<SourceFile> files = findSourceFiles(root);
+
+        Map<String, Integer> previousFiles = new HashMap<>();
+        if (previous != null) {
+            for (int i = 0; i < previous.fileCount(); i++) {
+                previousFiles.put(previous.path(i), i);
+            }
+        }
+
+        // Scan the files that are new or changed in parallel, each to its own array, in tree order
+        int[][] snippets = new int[files.size()][];
+        Arrays.parallelSetAll(snippets, i -> {
+            SourceFile file = files.get(i);
+            Integer old = previousFiles.get(file.path());
+            if (old != null && previous.modified(old) == file.modified() && previous.size(old) == file.size()) {
+                return previous.snippetsOf(old);
+            }
+            return scan(root.resolve(file.path()), file.size());
+        });
+
+        int total = 0;
+        for (int[] fileSnippets : snippets) {
+            total += fileSnippets.length / 2;
+        }
+        String[] paths = new String[files.size()];
+        long[] modified = new long[files.size()];
+        long[] sizes = new long[files.size()];
+        int[] firstSnippet = new int[files.size() + 1];
+        int[] starts = new int[total];
+        int[] lengths = new int[total];
+        int next = 0;
+        for (int i = 0; i < files.size(); i++) {
+            paths[i] = files.get(i).path();
+            modified[i] = files.get(i).modified();
+            sizes[i] = files.get(i).size();
+            firstSnippet[i] = next;
+            for (int j = 0; j < snippets[i].length; j += 2) {
+                starts[next] = snippets[i][j];
+                lengths[next] = snippets[i][j + 1];
+                next++;
+            }
+        }
+        firstSnippet[files.size()] = next;
+        return new SourceIndex(root, paths, modified, sizes, firstSnippet, starts, lengths);
+    }
+
+    /**
+     * Walks the tree for its source files, in the order of their paths.
+     *
+     * @param root the root of the source tree
+     * @return the source files
+     * @throws IOException if the tree cannot be walked
+     */
+    private static List<SourceFile> findSourceFiles(Path root) throws IOException {
+        List<SourceFile> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                boolean skipped = !dir.equals(root) && (name.startsWith(".") || SKIPPED_DIRECTORIES.contains(name));
+                return skipped ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && attributes.size() > 0 && attributes.size() <= MAX_FILE_BYTES
+                        && EXTENSIONS.contains(extensionOf(file))) {
+                    String path = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                    files.add(new SourceFile(path, attributes.lastModifiedTime().toMillis(), attributes.size()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE; // unreadable files are left out
+            }
+        });
+        files.sort(Comparator.comparing(SourceFile::path));
+        return files;
+    }
+
+    /**
+     * Gets the extension of a file name.
+     *
+     * @param file the file
+     * @return the extension, without the dot, or an empty string if there is none
+     */
+    private static String extensionOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+
+    /**
+     * Finds the snippets of one file.
+     *
+     * @param file the file
+     * @param size the size of the file
+     * @return the start offset and length of each snippet, one after the other
+     */
+    private static int[] scan(Path file, long size) {
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, channel.size()));
+        } catch (IOException e) {
+            Logger.getLogger(SourceIndexer.class.getName()).log(Level.WARNING, "Cannot index " + file, e);
+            return new int[0];
+        }
+        return findSnippets(bytes);
+    }
+
+    /**
+     * Finds the snippets in the bytes of a file.
+     *
+     * @param bytes the bytes of the file
+     * @return the start offset and length of each snippet, one after the other
+     */
+    static int[] findSnippets(ByteBuffer bytes) {
+        Lines lines = Lines.of(bytes);
+        if (lines == null) {
+            return new int[0]; // a binary file
+        }
+
+        // Grow each snippet from a line that starts a statement, keeping the longest cut where its braces balance
+        int[] snippets = new int[16];
+        int count = 0;
+        int line = 0;
+        while (line < lines.count) {
+            if (!lines.startsSnippet(line)) {
+                line++;
+                continue;
+            }
+            int best = -1;
+            int comments = 0;
+            int depth = 0;
+            for (int j = line; j < lines.count && (lines.kind[j] == Lines.CODE || lines.kind[j] == Lines.COMMENT)
+                    && lines.indent[j] >= lines.indent[line] && lines.end[j] - lines.start[line] <= MAX_SNIPPET_BYTES; j++) {
+                if (lines.kind[j] == Lines.COMMENT) {
+                    comments++;
+                } else {
+                    depth += lines.braces[j];
+                }
+                if (depth < 0) {
+                    break; // closes a block the snippet did not open
+                }
+                if (depth == 0 && lines.end[j] - lines.start[line] >= MIN_SNIPPET_BYTES && comments * 2 <= j - line + 1
+                        && lines.endsSnippet(j, line)) {
+                    best = j;
+                }
+            }
+            if (best < 0) {
+                line++;
+                continue;
+            }
+            if (count * 2 == snippets.length) {
+                snippets = Arrays.copyOf(snippets, snippets.length * 2);
+            }
+            snippets[count * 2] = lines.start[line];
+            snippets[count * 2 + 1] = lines.end[best] - lines.start[line];
+            count++;
+            line = best + 1;
+        }
+        return Arrays.copyOf(snippets, count * 2);
+    }
+
+    /**
+     * The lines of a file, measured once: where each starts and ends, its indentation,
+     * its first and last characters, the braces it opens or closes, and what kind of line it is.
+     */
+    private static final class Lines {
+        /**
+         * A line of code that can be typed.
+         */
+        static final byte CODE = 0;
+
+        /**
+         * A blank line.
+         */
+        static final byte BLANK = 1;
+
+        /**
+         * A line that cannot be typed faithfully: too long, with control characters or trailing whitespace.
+         */
+        static final byte UNTYPEABLE = 2;
+
+        /**
+         * A comment line that can be typed.
+         */
+        static final byte COMMENT = 3;
+
+        private final ByteBuffer bytes;
+        private int count;
+        private int[] start = new int[64];
+        private int[] end = new int[64];
+        private int[] indent = new int[64];
+        private int[] lead = new int[64];
+        private byte[] last = new byte[64];
+        private byte[] kind = new byte[64];
+        private int[] braces = new int[64];
+
+        /**
+         * Constructs a new, empty Lines.
+         *
+         * @param bytes the bytes of the file
+         */
+        private Lines(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Measures the lines of a file.
+         *
+         * @param bytes the bytes of the file
+         * @return the lines, or null if the file is binary
+         */
+        static Lines of(ByteBuffer bytes) {
+            Lines lines = new Lines(bytes);
+            int limit = bytes.limit();
+            int position = 0;
+            while (position < limit) {
+                int lineStart = position;
+                int columns = 0;
+                int leading = -1;
+                int leadingBytes = 0;
+                boolean typeable = true;
+                byte lastByte = ' ';
+                int opened = 0;
+                while (position < limit && bytes.get(position) != '\n') {
+                    byte b = bytes.get(position++);
+                    if (b == 0) {
+                        return null;
+                    }
+                    if (b == '{') {
+                        opened++;
+                    } else if (b == '}') {
+                        opened--;
+                    }
+                    if (b == '\t') {
+                        columns += TAB_COLUMNS - columns % TAB_COLUMNS;
+                    } else if ((b & 0xC0) != 0x80) {
+                        columns++; // count a character at its first byte only
+                    }
+                    if (leading < 0 && b != ' ' && b != '\t' && b != '\r') {
+                        leading = columns - 1;
+                        leadingBytes = position - 1 - lineStart;
+                    }
+                    if (b != '\r') {
+                        typeable &= b == '\t' || (b & 0xFF) >= ' ';
+                        lastByte = b;
+                    }
+                }
+                int lineEnd = position > lineStart && bytes.get(position - 1) == '\r' ? position - 1 : position;
+                position++; // past the newline
+
+                byte lineKind;
+                if (leading < 0) {
+                    lineKind = BLANK;
+                } else if (!typeable || columns > MAX_LINE_COLUMNS || lastByte == ' ' || lastByte == '\t') {
+                    lineKind = UNTYPEABLE;
+                } else {
+                    lineKind = isComment(bytes, lineStart + leadingBytes, lineEnd) ? COMMENT : CODE;
+                }
+                lines.add(lineStart, lineEnd, Math.max(leading, 0), leadingBytes, lastByte, lineKind, opened);
+            }
+            return lines;
+        }
+
+        /**
+         * Adds a measured line.
+         *
+         * @param lineStart where the line starts
+         * @param lineEnd   where the line ends, before any line terminator
+         * @param columns   the indentation in columns
+         * @param leading   the indentation in bytes
+         * @param lastByte  the last character of the line
+         * @param lineKind  the kind of line
+         * @param opened    the number of braces the line opens, less the number it closes
+         */
+        private void add(int lineStart, int lineEnd, int columns, int leading, byte lastByte, byte lineKind, int opened) {
+            if (count == start.length) {
+                start = Arrays.copyOf(start, count * 2);
+                end = Arrays.copyOf(end, count * 2);
+                indent = Arrays.copyOf(indent, count * 2);
+                lead = Arrays.copyOf(lead, count * 2);
+                last = Arrays.copyOf(last, count * 2);
+                kind = Arrays.copyOf(kind, count * 2);
+                braces = Arrays.copyOf(braces, count * 2);
+            }
+            start[count] = lineStart;
+            end[count] = lineEnd;
+            indent[count] = columns;
+            lead[count] = leading;
+            last[count] = lastByte;
+            kind[count] = lineKind;
+            braces[count] = opened;
+            count++;
+        }
+
+        /**
+         * Checks whether a snippet may start at a line: a line of code, not an import or a closing
+         * bracket, after a line that ends a statement or opens a block, or that is not code.
+         *
+         * @param line the line
+         * @return true if a snippet may start at the line
+         */
+        boolean startsSnippet(int line) {
+            if (kind[line] != CODE || closesBracket(first(line))
+                    || startsWith(line, "import ") || startsWith(line, "package ")) {
+                return false;
+            }
+            int previous = line - 1;
+            return previous < 0 || kind[previous] != CODE || first(previous) == '@'
+                    || last[previous] == ';' || last[previous] == '{' || last[previous] == '}' || last[previous] == ':';
+        }
+
+        /**
+         * Checks whether a snippet may end after a line: the line does not carry on onto the next,
+         * and the next line is missing, not code, indented less than the first line, or indented
+         * the same and does not close a bracket.
+         *
+         * @param line  the line the snippet would end with
+         * @param first the first line of the snippet
+         * @return true if the snippet may end after the line
+         */
+        boolean endsSnippet(int line, int first) {
+            if (kind[line] != CODE || ",([=+-*/&|.\\".indexOf(last[line]) >= 0) {
+                return false;
+            }
+            int next = line + 1;
+            if (next >= count || kind[next] == BLANK || kind[next] == UNTYPEABLE || indent[next] < indent[first]) {
+                return true;
+            }
+            return indent[next] == indent[first] && !closesBracket(first(next));
+        }
+
+        /**
+         * Gets the first character of a line after its indentation.
+         *
+         * @param line the line
+         * @return the first character
+         */
+        private byte first(int line) {
+            return bytes.get(start[line] + lead[line]);
+        }
+
+        /**
+         * Checks whether a line starts with some text after its indentation.
+         *
+         * @param line   the line
+         * @param prefix the text, in ASCII
+         * @return true if the line starts with the text
+         */
+        private boolean startsWith(int line, String prefix) {
+            int from = start[line] + lead[line];
+            if (end[line] - from < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (bytes.get(from + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether a line is a comment: it starts with //, /*, * or #.
+         *
+         * @param bytes the bytes of the file
+         * @param from  where the line starts after its indentation
+         * @param to    where the line ends
+         * @return true if the line is a comment
+         */
+        private static boolean isComment(ByteBuffer bytes, int from, int to) {
+            byte first = bytes.get(from);
+            if (first == '*' || first == '#') {
+                return true;
+            }
+            return first == '/' && from + 1 < to && (bytes.get(from + 1) == '/' || bytes.get(from + 1) == '*');
+        }
+
+        /**
+         * Checks whether a line starting with a character closes a bracket opened above it.
+         *
+         * @param first the first character of the line after its indentation
+         * @return true if it is a closing bracket
+         */
+        private static boolean closesBracket(byte first) {
+            return first == '}' || first == ')' || first == ']';
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package GuiTypingTest.Text;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WordDawg stores a word list as a minimal directed acyclic word graph (DAWG).
+ * Shared prefixes and shared suffixes are stored once, and the finished graph is
+ * flattened into a few primitive arrays, which takes far less memory than one
+ * {@code String} per word. Membership and prefix queries take time proportional
+ * to the length of the query, and every node records how many words lie below it,
+ * so the words can also be read back by, and looked up to, their position in sorted order.
+ * Duplicate words are dropped while the graph is built.
+ */
+public final class WordDawg {
+    private final int[] firstEdge;
+    private final char[] edgeLabel;
+    private final int[] edgeTarget;
+    private final boolean[] terminal;
+    private final int[] wordCount;
+
+    /**
+     * Builds a DAWG from a list of words in any order, which may contain duplicates.
+     *
+     * @param words the words to store
+     */
+    public WordDawg(List<String> words) {
+        String[] sorted = words.toArray(new String[0]);
+        Arrays.sort(sorted);
+
+        // Build the minimal graph with Daciuk's incremental algorithm for sorted input
+        Node root = new Node();
+        Map<Node, Node> register = new HashMap<>();
+        String previous = null;
+        for (String word : sorted) {
+            if (word.isEmpty() || word.equals(previous)) {
+                continue; // skip blank entries and duplicates
+            }
+            int common = 0;
+            Node state = root;
+            while (common < word.length() && state.lastLabel() == word.charAt(common)) {
+                state = state.lastChild();
+                common++;
+            }
+            if (state.edges > 0) {
+                replaceOrRegister(state, register);
+            }
+            for (int i = common; i < word.length(); i++) {
+                Node next = new Node();
+                state.add(word.charAt(i), next);
+                state = next;
+            }
+            state.terminal = true;
+            previous = word;
+        }
+        if (root.edges > 0) {
+            replaceOrRegister(root, register);
+        }
+
+        // Flatten the graph into arrays, numbering nodes in depth-first order from the root
+        Map<Node, Integer> ids = new IdentityHashMap<>();
+        List<Node> order = new ArrayList<>();
+        number(root, ids, order);
+
+        int nodes = order.size();
+        firstEdge = new int[nodes + 1];
+        terminal = new boolean[nodes];
+        int edges = 0;
+        for (int n = 0; n < nodes; n++) {
+            firstEdge[n] = edges;
+            terminal[n] = order.get(n).terminal;
+            edges += order.get(n).edges;
+        }
+        firstEdge[nodes] = edges;
+        edgeLabel = new char[edges];
+        edgeTarget = new int[edges];
+        for (int n = 0; n < nodes; n++) {
+            Node node = order.get(n);
+            for (int e = 0; e < node.edges; e++) {
+                edgeLabel[firstEdge[n] + e] = node.labels[e];
+                edgeTarget[firstEdge[n] + e] = ids.get(node.targets[e]);
+            }
+        }
+
+        // Count the words below each node
+        wordCount = new int[nodes];
+        Arrays.fill(wordCount, -1);
+        if (nodes > 0) {
+            countWords(0);
+        }
+    }
+
+    /**
+     * Gets the number of distinct words stored.
+     *
+     * @return the number of words
+     */
+    public int size() {
+        return wordCount.length == 0 ? 0 : wordCount[0];
+    }
+
+    /**
+     * Checks whether a word is stored.
+     *
+     * @param word the word to look up
+     * @return true if the word is stored
+     */
+    public boolean contains(CharSequence word) {
+        int node = walk(word);
+        return node >= 0 && terminal[node];
+    }
+
+    /**
+     * Checks whether any stored word starts with a prefix.
+     *
+     * @param prefix the prefix to look up
+     * @return true if at least one word starts with the prefix
+     */
+    public boolean hasPrefix(CharSequence prefix) {
+        return walk(prefix) >= 0;
+    }
+
+    /**
+     * Gets the position of a word in sorted order, the inverse of {@link #wordAt}.
+     *
+     * @param word the word to look up
+     * @return the position of the word, or -1 if it is not stored
+     */
+    public int indexOf(CharSequence word) {
+        int node = walk(word);
+        return node >= 0 && terminal[node] ? firstIndex(word) : -1;
+    }
+
+    /**
+     * Checks whether a prefix is the start of the word at a position, by checking that the
+     * position lies in the run of words below the node the prefix leads to.
+     *
+     * @param prefix the prefix to look up
+     * @param index  the position of the word, as given by {@link #indexOf}
+     * @return true if the word at the position starts with the prefix
+     */
+    public boolean isPrefixOf(CharSequence prefix, int index) {
+        int node = walk(prefix);
+        if (node < 0) {
+            return false;
+        }
+        int first = firstIndex(prefix);
+        return index >= first && index < first + wordCount[node];
+    }
+
+    /**
+     * Gets the word at a position in sorted order.
+     *
+     * @param index the position of the word, from 0 to {@link #size()} - 1
+     * @return the word
+     */
+    public String wordAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size() + " words");
+        }
+        StringBuilder word = new StringBuilder();
+        int node = 0;
+        int remaining = index;
+        while (true) {
+            if (terminal[node]) {
+                if (remaining == 0) {
+                    return word.toString();
+                }
+                remaining--;
+            }
+            for (int e = firstEdge[node]; e < firstEdge[node + 1]; e++) {
+                int below = wordCount[edgeTarget[e]];
+                if (remaining < below) {
+                    word.append(edgeLabel[e]);
+                    node = edgeTarget[e];
+                    break;
+                }
+                remaining -= below;
+            }
+        }
+    }
+
+    /**
+     * Gets a read-only list view of the words in sorted order.
+     * Each access rebuilds the word from the graph, so no strings are kept.
+     *
+     * @return the list view
+     */
+    public List<String> asList() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return wordAt(index);
+            }
+
+            @Override
+            public int size() {
+                return WordDawg.this.size();
+            }
+        };
+    }
+
+    /**
+     * Gets an estimate of the memory held by the graph arrays.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedSize() {
+        return 4L * firstEdge.length + 2L * edgeLabel.length + 4L * edgeTarget.length
+                + terminal.length + 4L * wordCount.length + 5 * 16;
+    }
+
+    /**
+     * Follows a sequence of characters from the root.
+     *
+     * @param chars the characters to follow
+     * @return the node reached, or -1 if the path does not exist
+     */
+    private int walk(CharSequence chars) {
+        if (wordCount.length == 0) {
+            return -1;
+        }
+        int node = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            node = child(node, chars.charAt(i));
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gets the position in sorted order of the first word starting with a prefix,
+     * counting the words passed on the way down from the root.
+     *
+     * @param prefix a prefix that {@link #walk} can follow
+     * @return the position of the first word starting with the prefix
+     */
+    private int firstIndex(CharSequence prefix) {
+        int index = 0;
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (terminal[node]) {
+                index++; // the word ending here sorts before every longer one
+            }
+            char label = prefix.charAt(i);
+            int e = firstEdge[node];
+            while (edgeLabel[e] != label) {
+                index += wordCount[edgeTarget[e]];
+                e++;
+            }
+            node = edgeTarget[e];
+        }
+        return index;
+    }
+
+    /**
+     * Finds the child of a node along the edge with the given label,
+     * using a binary search since edges are sorted by label.
+     *
+     * @param node  the node
+     * @param label the edge label
+     * @return the child node, or -1 if there is no such edge
+     */
+    private int child(int node, char label) {
+        int low = firstEdge[node];
+        int high = firstEdge[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (edgeLabel[mid] < label) {
+                low = mid + 1;
+            } else if (edgeLabel[mid] > label) {
+                high = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the words below a node, remembering the count of every node visited
+     * since shared nodes are reached along several paths.
+     *
+     * @param node the node
+     * @return the number of words below the node, including the node itself if it is terminal
+     */
+    private int countWords(int node) {
+        if (wordCount[node] < 0) {
+            int count = terminal[node] ? 1 : 0;
+            for (int e = firstEdge[node]; e < firstEdge[node + 1]; e++) {
+                count += countWords(edgeTarget[e]);
+            }
+            wordCount[node] = count;
+        }
+        return wordCount[node];
+    }
+
+    /**
+     * Minimises the most recently added branch below a node, replacing each node on it
+     * with an equivalent registered node where one exists.
+     *
+     * @param state    the node whose last branch is finished
+     * @param register the registered nodes, keyed by themselves
+     */
+    private static void replaceOrRegister(Node state, Map<Node, Node> register) {
+        Node child = state.lastChild();
+        if (child.edges > 0) {
+            replaceOrRegister(child, register);
+        }
+        Node equivalent = register.putIfAbsent(child, child);
+        if (equivalent != null) {
+            state.targets[state.edges - 1] = equivalent;
+        }
+    }
+
+    /**
+     * Numbers the nodes reachable from a node in depth-first order.
+     *
+     * @param node  the node to start from
+     * @param ids   the numbers given so far
+     * @param order the nodes in number order
+     */
+    private static void number(Node node, Map<Node, Integer> ids, List<Node> order) {
+        ids.put(node, order.size());
+        order.add(node);
+        for (int e = 0; e < node.edges; e++) {
+            if (!ids.containsKey(node.targets[e])) {
+                number(node.targets[e], ids, order);
+            }
+        }
+    }
+
+    /**
+     * A node of the graph while it is being built.
+     * Two nodes are equal when they have the same terminal flag and the same edges
+     * to the same (already minimised) nodes, which is what makes them interchangeable.
+     */
+    private static final class Node {
+        private char[] labels = new char[2];
+        private Node[] targets = new Node[2];
+        private int edges;
+        private boolean terminal;
+
+        /**
+         * Adds an edge after all existing edges.
+         *
+         * @param label  the edge label
+         * @param target the node the edge leads to
+         */
+        private void add(char label, Node target) {
+            if (edges == labels.length) {
+                labels = Arrays.copyOf(labels, edges * 2);
+                targets = Arrays.copyOf(targets, edges * 2);
+            }
+            labels[edges] = label;
+            targets[edges] = target;
+            edges++;
+        }
+
+        /**
+         * Gets the label of the last edge.
+         *
+         * @return the label, or a character no word contains if there are no edges
+         */
+        private char lastLabel() {
+            return edges == 0 ? '\uFFFF' : labels[edges - 1];
+        }
+
+        /**
+         * Gets the target of the last edge.
+         *
+         * @return the last child node
+         */
+        private Node lastChild() {
+            return targets[edges - 1];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node other) || terminal != other.terminal || edges != other.edges) {
+                return false;
+            }
+            for (int e = 0; e < edges; e++) {
+                if (labels[e] != other.labels[e] || targets[e] != other.targets[e]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = terminal ? 1 : 0;
+            for (int e = 0; e < edges; e++) {
+                hash = 31 * hash + labels[e];
+                hash = 31 * hash + System.identityHashCode(targets[e]);
+            }
+            return hash;
+        }
+    }
+}
@@ -1,40 +1,72 @@
 package GuiTypingTest;
 
+import GuiTypingTest.Charts.ChartService;
 import GuiTypingTest.InputProviders.*;
+import GuiTypingTest.Leaderboard.Leaderboard;
 import GuiTypingTest.OutputProviders.*;
+import GuiTypingTest.Plans.TestPlan;
+import GuiTypingTest.Plans.TestPlanCache;
+import GuiTypingTest.Race.GhostLibrary;
+import GuiTypingTest.Race.GhostOverlay;
+import GuiTypingTest.Sessions.SessionLogWriter;
+import GuiTypingTest.Statistics.StatisticsEngine;
 import GuiTypingTest.Testers.*;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.text.DefaultEditorKit;
 import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import java.util.logging.*;
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.ChartPanel;
-import org.jfree.chart.JFreeChart;
-import org.jfree.data.category.DefaultCategoryDataset;
 
 /**
  * TypingTesterGUI is the main class for the Typing Tester application.
  * It sets up the GUI and handles the interaction between the user and the typing test.
  */
 public class TypingTesterGUI {
+    /**
+     * The most ghosts raced against at once.
+     */
+    private static final int MAX_GHOSTS = 3;
+
     private final JFrame frame;
     private JTextArea displayArea;
     private JButton restartButton;
-    private JLabel timeLabel;
+    private LiveHud hud;
     private TypingTester typingTest;
     private Result result;
     private long timeLimit;
+    private int timeOption;
     private int textOption;
     private int formatOption;
-    private Timer timer;
+    private Path customFile;
+    private Path sourceDirectory;
+    private TestPlan plan;
+    private boolean planEntered;
+    private SessionLogWriter sessionLog;
+    private boolean race;
+    private GhostOverlay ghosts;
 
     // New fields for storing user data
     private final ArrayList<Integer> speedHistory = new ArrayList<>();
     private final ArrayList<Integer> accuracyHistory = new ArrayList<>();
+    private final StatisticsEngine statistics = new StatisticsEngine();
+    private final ChartService charts = new ChartService();
+    private final ProviderRegistry providers = new ProviderRegistry();
+    private final TestPlanCache plans = new TestPlanCache();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final FrameTicker ticker = new FrameTicker(60);
 
     /**
      * Constructor for TypingTesterGUI.
@@ -50,6 +82,12 @@ public class TypingTesterGUI {
         frame.setLayout(new BorderLayout());
         frame.setSize(800, 500);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowOpened(java.awt.event.WindowEvent evt) {
+                StartupProbe.firstFrame();
+            }
+        });
         frame.setVisible(true);
 
         setupTestOptions();
@@ -68,13 +106,13 @@ public class TypingTesterGUI {
         optionsPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
 
         // Time limit options
-        String[] timeOptions = {"30 seconds", "1 minute", "3 minutes"};
+        String[] timeOptions = {"30 seconds", "1 minute", "3 minutes", "Endurance (no time limit)"};
         JComboBox<String> timeComboBox = new JComboBox<>(timeOptions);
         styleComboBox(timeComboBox);
         optionsPanel.add(createLabeledComponent("Choose the time limit:", timeComboBox));
 
         // Text type options
-        String[] textOptions = {"Normal Sentences", "Random Sentences/Words", "Nonsense Sentences/Words"};
+        String[] textOptions = {"Normal Sentences", "Random Sentences/Words", "Nonsense Sentences/Words", "Custom Text File...", "Code From A Source Folder..."};
         JComboBox<String> textComboBox = new JComboBox<>(textOptions);
         styleComboBox(textComboBox);
         optionsPanel.add(createLabeledComponent("Choose the type of text:", textComboBox));
@@ -85,6 +123,10 @@ public class TypingTesterGUI {
         styleComboBox(formatComboBox);
         optionsPanel.add(createLabeledComponent("Choose the format:", formatComboBox));
 
+        // Normal Sentences is selected to begin with, and only comes a sentence at a time
+        formatComboBox.setSelectedIndex(1);
+        formatComboBox.setEnabled(false);
+
         // Disable format options if "Normal Sentences" is selected
         textComboBox.addActionListener(e -> {
             if (textComboBox.getSelectedIndex() == 0) {
@@ -95,17 +137,83 @@ public class TypingTesterGUI {
             }
         });
 
+        // Plan ID, to repeat a test someone else has taken
+        JTextField planField = new JTextField();
+        planField.setBorder(new EmptyBorder(5, 5, 5, 5));
+        optionsPanel.add(createLabeledComponent("Plan ID (optional, repeats a shared test):", planField));
+
+        // Race against the best earlier runs of the same plan
+        JCheckBox raceCheckBox = new JCheckBox("Race against ghosts of earlier runs of this plan");
+        raceCheckBox.setOpaque(false);
+        optionsPanel.add(raceCheckBox);
+
         // Start button
         JButton startButton = new JButton("Start Test");
         styleButton(startButton, new Color(34, 139, 34), new Color(0, 0, 139)); // Green background, dark blue text
         startButton.addActionListener(e -> {
-            timeLimit = convertToMillis(timeComboBox.getSelectedIndex());
+            timeOption = timeComboBox.getSelectedIndex();
             textOption = textComboBox.getSelectedIndex();
             formatOption = formatComboBox.getSelectedIndex();
+            race = raceCheckBox.isSelected();
+            plan = null;
+
+            // A plan fixes the options, overriding the ones chosen above
+            if (!planField.getText().isBlank()) {
+                try {
+                    plan = TestPlan.parse(planField.getText());
+                } catch (IllegalArgumentException ex) {
+                    showError(ex.getMessage());
+                    return;
+                }
+                // The ID does not say which file or folder the text came from, so it would mean other text elsewhere
+                if (plan.mode().textOption() == 3 || plan.mode().textOption() == 4) {
+                    showError("Plan " + plan.id() + " is for a custom text file or source folder,"
+                            + " which a plan ID cannot identify, so it cannot be repeated from its ID.");
+                    return;
+                }
+                timeOption = plan.mode().timeOption();
+                textOption = plan.mode().textOption();
+                formatOption = plan.mode().formatOption();
+            }
+
+            planEntered = plan != null;
+
+            // Normal sentences always come a sentence at a time, whatever the format says
+            if (textOption == 0 && formatOption != 1) {
+                formatOption = 1;
+                if (plan != null) {
+                    plan = new TestPlan(new TestMode(textOption, formatOption, timeOption), plan.corpusVersion(), plan.seed());
+                }
+            }
+            timeLimit = convertToMillis(timeOption);
+
+            // Ask for the file to type from when a custom text is chosen
+            if (textOption == 3) {
+                JFileChooser fileChooser = new JFileChooser(System.getProperty("user.dir"));
+                if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                customFile = fileChooser.getSelectedFile().toPath();
+            }
+
+            // Ask for the folder to take code from when code is chosen
+            if (textOption == 4) {
+                JFileChooser folderChooser = new JFileChooser(System.getProperty("user.dir"));
+                folderChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+                if (folderChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                sourceDirectory = folderChooser.getSelectedFile().toPath();
+            }
             initializeTest();
         });
         optionsPanel.add(startButton);
 
+        // When measuring startup, go straight to the first test with the default options
+        if (StartupProbe.isEnabled()) {
+            SwingUtilities.invokeLater(startButton::doClick);
+        }
+
         // Button to show graph
         JButton graphButton = new JButton("Show Progress Graph");
         styleButton(graphButton, new Color(70, 130, 180), Color.BLACK); // Blue background, black text
@@ -121,6 +229,34 @@ public class TypingTesterGUI {
      * Initializes the test by setting up the display area, input field, and other components.
      */
     private void initializeTest() {
+        // Get the text before the screen changes, so a bad plan leaves the options on screen
+        boolean singleWords = formatOption == 0;
+        List<String> text;
+        TextStream textStream = null;
+        try {
+            // Code may need its folder indexed first, which can take seconds for a large folder
+            text = textOption == 4
+                    ? inBackground("Indexing " + sourceDirectory.getFileName() + "...", () -> preparePlan(singleWords))
+                    : preparePlan(singleWords);
+
+            // An endurance test starts once the first of its text is ready, so the first prompt never waits
+            if (text == null) {
+                TextStream stream = new TextStream(textProvider(singleWords), plan.seed());
+                textStream = stream;
+                inBackground("Preparing the text...", () -> {
+                    stream.awaitReady();
+                    return null;
+                });
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            if (textStream != null) {
+                textStream.close();
+            }
+            Logger.getLogger(TypingTesterGUI.class.getName()).log(Level.WARNING, null, e);
+            showError(e.getMessage());
+            return;
+        }
+
         frame.getContentPane().removeAll();
 
         displayArea = new JTextArea();
@@ -135,75 +271,216 @@ public class TypingTesterGUI {
         JTextField inputField = new JTextField();
         inputField.setBorder(new EmptyBorder(10, 10, 10, 10));
 
+        // Code keeps its indentation, so show it in a fixed-width font and let the Tab key type tabs
+        if (textOption == 4) {
+            Font code = new Font(Font.MONOSPACED, Font.PLAIN, displayArea.getFont().getSize());
+            displayArea.setFont(code);
+            inputField.setFont(code);
+            // A text field drops control characters it is typed, so bind Tab to insert one
+            inputField.setFocusTraversalKeysEnabled(false);
+            inputField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_TAB, 0), DefaultEditorKit.insertTabAction);
+            inputField.getActionMap().put(DefaultEditorKit.insertTabAction, new DefaultEditorKit.InsertTabAction());
+        }
+
         JButton submitButton = new JButton("Submit");
         styleButton(submitButton, new Color(70, 130, 180), Color.BLACK); // Blue background, white text
 
-        timeLabel = new JLabel("Time remaining: " + timeLimit / 1000 + " seconds", SwingConstants.CENTER);
-        timeLabel.setOpaque(true);
-        timeLabel.setBackground(new Color(0, 100, 0)); // Dark green background
-        timeLabel.setForeground(Color.WHITE); // White text
-        timeLabel.setBorder(new EmptyBorder(10, 10, 10, 10));
-
         GUIInputProvider inputProvider = new GUIInputProvider(inputField, submitButton);
         inputProvider.setDisplayArea(displayArea);
 
+        // Initialize the typing test from the text of the plan, or from its seed for an endurance test
+        if (text == null) {
+            typingTest = new EnduranceTypingTest(textStream, inputProvider, singleWords, new SystemTestClock());
+        } else if (singleWords) {
+            typingTest = new TimeLimitTypingTestWords(text, inputProvider, timeLimit, this, new SystemTestClock());
+        } else {
+            typingTest = new TimeLimitTypingTestSentences(text, inputProvider, timeLimit, this, new SystemTestClock());
+        }
+        hud = new LiveHud(typingTest, timeLimit);
+
+        // Draw the ghosts of earlier runs over the text if racing, joining the race once they are found
+        ghosts = null;
+        if (race) {
+            GhostOverlay overlay = new GhostOverlay(() -> Math.max(0, inputProvider.getDisplayedCount() - 1));
+            GhostLibrary.findLater(plan, MAX_GHOSTS).thenAccept(tracks -> SwingUtilities.invokeLater(() -> overlay.setGhosts(tracks)));
+            ghosts = overlay;
+        }
+
         frame.setLayout(new BorderLayout());
-        frame.add(timeLabel, BorderLayout.NORTH);
-        frame.add(new JScrollPane(displayArea), BorderLayout.CENTER);
+        frame.add(hud, BorderLayout.NORTH);
+        frame.add(new JScrollPane(ghosts == null ? displayArea : ghosts.wrap(displayArea)), BorderLayout.CENTER);
         frame.add(typeHereLabel, BorderLayout.SOUTH);
         frame.add(inputField, BorderLayout.SOUTH);
         frame.add(submitButton, BorderLayout.EAST);
+        if (text == null) {
+            // An endurance test runs until the user finishes it
+            JButton finishButton = new JButton("Finish");
+            styleButton(finishButton, new Color(178, 34, 34), Color.BLACK); // Red background, black text
+            finishButton.addActionListener(e -> {
+                finishButton.setEnabled(false);
+                completeTest();
+            });
+            frame.add(finishButton, BorderLayout.WEST);
+        }
         frame.revalidate();
         frame.repaint();
 
-        // Initialize the typing test based on user selections
-        TextToTypeProvider textToTypeProvider;
-        if (textOption == 0) {
-            textToTypeProvider = new NormalSentenceProvider();
-            typingTest = new TimeLimitTypingTestSentences(textToTypeProvider, inputProvider, timeLimit, this);
-        } else if (textOption == 1) {
-            if (formatOption == 0) {
-                textToTypeProvider = new SingleWordsProvider(0);
-                typingTest = new TimeLimitTypingTestWords(textToTypeProvider, inputProvider, timeLimit, this);
-            } else {
-                textToTypeProvider = new RandomSentenceProvider();
-                typingTest = new TimeLimitTypingTestSentences(textToTypeProvider, inputProvider, timeLimit, this);
+        // Record the keystrokes of the test so it can be replayed and analysed later
+        sessionLog = openSessionLog();
+        inputProvider.setKeystrokeListener(sessionLog);
+
+        startTest();
+    }
+
+    /**
+     * Gets the text of the test about to start. A test without a plan ID gets a new plan with
+     * a random seed. The text of a plan is loaded from the plan cache when it is there, so no
+     * provider is loaded or asked for text; otherwise it is generated from the seed and cached.
+     * An endurance test has no end to its text, so it is not cached but generated from the seed
+     * while the test runs.
+     *
+     * @param singleWords true if single words are to be typed, false for sentences
+     * @return the text to type, or null for an endurance test
+     * @throws IOException              if the plan cache cannot be read or written
+     * @throws IllegalArgumentException if the plan cannot be generated from the text available here
+     */
+    private List<String> preparePlan(boolean singleWords) throws IOException {
+        Supplier<TextToTypeProvider> provider = () -> textProvider(singleWords);
+        if (plan == null) {
+            TestMode mode = new TestMode(textOption, formatOption, timeOption);
+            plan = new TestPlan(mode, provider.get().corpusVersion(), new Random().nextLong());
+        }
+        if (plan.mode().isEndurance()) {
+            if (provider.get().corpusVersion() != plan.corpusVersion()) {
+                throw new IllegalArgumentException("Plan " + plan.id() + " was made from a different version of the text");
             }
-        } else {
-            if (formatOption == 0) {
-                textToTypeProvider = new SingleWordsProvider(1);
-                typingTest = new TimeLimitTypingTestWords(textToTypeProvider, inputProvider, timeLimit, this);
-            } else {
-                textToTypeProvider = new NonsenseSentenceProvider();
-                typingTest = new TimeLimitTypingTestSentences(textToTypeProvider, inputProvider, timeLimit, this);
+            return null;
+        }
+        return plans.getOrGenerate(plan, provider);
+    }
+
+    /**
+     * Does slow work before a test on a background thread while a dialog shows that it is in progress.
+     * The dialog is modal, so the options cannot change until the work is done.
+     *
+     * @param message what the dialog says is being done
+     * @param work    the work to do
+     * @param <T>     the type of the work's result
+     * @return the result of the work
+     * @throws IOException if the work throws one
+     */
+    private <T> T inBackground(String message, Callable<T> work) throws IOException {
+        JDialog progress = new JDialog(frame, "Typing Tester", true);
+        progress.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        JLabel label = new JLabel(message);
+        label.setBorder(new EmptyBorder(10, 10, 10, 10));
+        progress.add(label, BorderLayout.NORTH);
+        progress.add(bar, BorderLayout.CENTER);
+        progress.pack();
+        progress.setLocationRelativeTo(frame);
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return work.call();
+            }
+
+            @Override
+            protected void done() {
+                progress.dispose();
             }
+        };
+        worker.execute();
+        progress.setVisible(true); // returns once the worker is done
+
+        try {
+            return worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while preparing the test");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
         }
+    }
 
-        startTest();
+    /**
+     * Gets the provider of the selected type of text, reusing providers loaded by earlier tests.
+     *
+     * @param singleWords true if single words are to be typed, false for sentences
+     * @return the provider
+     */
+    private TextToTypeProvider textProvider(boolean singleWords) {
+        return switch (textOption) {
+            case 3 -> providers.getCustom(customFile, singleWords);
+            case 4 -> providers.getCode(sourceDirectory, singleWords);
+            default -> providers.get(providerKey(singleWords));
+        };
+    }
+
+    /**
+     * Shows an error message over the main window.
+     *
+     * @param message the message to show
+     */
+    private void showError(String message) {
+        JOptionPane.showMessageDialog(frame, message, "Cannot start the test", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Opens a new session log for the test about to start.
+     *
+     * @return the session log, or null if it could not be created
+     */
+    private SessionLogWriter openSessionLog() {
+        try {
+            Path directory = Paths.get(System.getProperty("user.dir") + "/SessionLogs");
+            Files.createDirectories(directory);
+            Path file = directory.resolve("session-" + System.currentTimeMillis() + ".ttk");
+            return new SessionLogWriter(file, plan);
+        } catch (IOException e) {
+            Logger.getLogger(TypingTesterGUI.class.getName()).log(Level.SEVERE, null, e);
+            return null;
+        }
     }
 
     /**
-     * Starts the typing test and sets up the timer to update the remaining time.
+     * Gets the key of the built-in provider for the selected type of text.
+     *
+     * @param singleWords true if single words are to be typed, false for sentences
+     * @return the provider key
+     */
+    private String providerKey(boolean singleWords) {
+        return switch (textOption) {
+            case 0 -> BuiltInProviderFactory.NORMAL_SENTENCES;
+            case 1 -> singleWords ? BuiltInProviderFactory.RANDOM_WORDS : BuiltInProviderFactory.RANDOM_SENTENCES;
+            default -> singleWords ? BuiltInProviderFactory.NONSENSE_WORDS : BuiltInProviderFactory.NONSENSE_SENTENCES;
+        };
+    }
+
+    /**
+     * Starts the typing test and the live display of its progress.
      */
     private void startTest() {
         displayArea.setText("");
 
         if (typingTest != null) {
             typingTest.startTest();
-            timer = new Timer();
-            timer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    long elapsed = System.currentTimeMillis() - typingTest.getStartTime();
-                    long remaining = timeLimit - elapsed;
-                    if (remaining <= 0) {
-                        timer.cancel();
-                        remaining = 0;
-                    }
-                    final long finalRemaining = remaining;
-                    SwingUtilities.invokeLater(() -> timeLabel.setText("Time remaining: " + finalRemaining / 1000 + " seconds"));
-                }
-            }, 0, 1000);
+            if (ghosts != null) {
+                ghosts.start();
+                ticker.add(ghosts);
+            }
+            if (typingTest instanceof FrameTicker.FrameListener listener) {
+                ticker.add(listener); // an endurance test waiting for text checks again each frame
+            }
+            ticker.add(hud);
         } else {
             System.err.println("Error: typingTest is not initialized.");
         }
@@ -213,14 +490,33 @@ public class TypingTesterGUI {
      * Completes the typing test and displays the result.
      */
     public void completeTest() {
-        if (timer != null) {
-            timer.cancel();
+        if (hud != null) {
+            ticker.remove(hud);
+        }
+        if (ghosts != null) {
+            ticker.remove(ghosts);
+        }
+        if (typingTest instanceof FrameTicker.FrameListener listener) {
+            ticker.remove(listener);
         }
         result = typingTest.completeTest();
         if (result != null) {
             // Store the speed and accuracy in the lists
             speedHistory.add(result.calculateSpeed());
             accuracyHistory.add(result.calculateAccuracy());
+            closeSessionLog();
+            TestMode mode = new TestMode(textOption, formatOption, timeOption);
+            statistics.record(mode, result);
+            Leaderboard.Ranking ranking = leaderboard.submit(plan, result, System.currentTimeMillis(), planEntered);
+            saveLeaderboard();
+            String modeSummary = statistics.summarise(mode, result)
+                    + String.format("%nRank in this mode: #%,d of %,d", ranking.modeRank(), ranking.modeTotal())
+                    + (ranking.planTotal() > 0 ? String.format("%nRank on this plan: #%,d of %,d", ranking.planRank(), ranking.planTotal()) : "")
+                    + "\nPlan ID: " + plan.id()
+                    + (typingTest instanceof EnduranceTypingTest endurance ? recentSummary(endurance.getRecent()) : "");
+
+            // Draw the new charts in the background while the results are on screen
+            charts.update(speedHistory, accuracyHistory, result.calculateSpeedOverTime(), result.bucketNanos() / Result.BUCKET_NANOS);
 
             SwingUtilities.invokeLater(() -> {
                 frame.getContentPane().removeAll();
@@ -228,7 +524,7 @@ public class TypingTesterGUI {
                 resultPanel.setLayout(new BoxLayout(resultPanel, BoxLayout.Y_AXIS));
                 resultPanel.setBackground(new Color(240, 240, 240));
                 resultPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
-                JLabel resultLabel = new JLabel("<html>" + result.toString().replace("\n", "<br>") + "</html>", SwingConstants.CENTER);
+                JLabel resultLabel = new JLabel("<html>" + (result + "\n" + modeSummary).replace("\n", "<br>") + "</html>", SwingConstants.CENTER);
                 resultLabel.setBorder(new EmptyBorder(10, 10, 10, 10));
                 resultPanel.add(resultLabel);
 
@@ -246,16 +542,54 @@ public class TypingTesterGUI {
         }
     }
 
+    /**
+     * Summarises the speed and accuracy at the end of an endurance test.
+     *
+     * @param recent the figures over the last words and minutes of the test
+     * @return a string summary of the figures
+     */
+    private static String recentSummary(RollingStats.Snapshot recent) {
+        return String.format("%nLast %d Words: %d words per minute, %d%% accuracy%nLast %d Minutes: %d words per minute, %d%% accuracy",
+                RollingStats.WINDOW_WORDS, recent.wordsSpeed(), recent.wordsAccuracy(),
+                RollingStats.WINDOW_MINUTES, recent.minutesSpeed(), recent.minutesAccuracy());
+    }
+
+    /**
+     * Writes the result to the session log of the finished test and closes it.
+     */
+    private void closeSessionLog() {
+        if (sessionLog != null) {
+            try {
+                sessionLog.close(result);
+            } catch (IOException e) {
+                Logger.getLogger(TypingTesterGUI.class.getName()).log(Level.SEVERE, null, e);
+            }
+            sessionLog = null;
+        }
+    }
+
+    /**
+     * Saves the leaderboard with the result of the finished test.
+     */
+    private void saveLeaderboard() {
+        try {
+            leaderboard.save();
+        } catch (IOException e) {
+            Logger.getLogger(TypingTesterGUI.class.getName()).log(Level.SEVERE, null, e);
+        }
+    }
+
     /**
      * Converts the selected time option to milliseconds.
      *
      * @param option the selected time option index
-     * @return the time limit in milliseconds
+     * @return the time limit in milliseconds, or 0 for an endurance test with no time limit
      */
     private long convertToMillis(int option) {
         return switch (option) {
             case 1 -> 60000;
             case 2 -> 180000;
+            case TestMode.ENDURANCE -> 0; // no time limit
             default -> 30000;
         };
     }
@@ -314,29 +648,21 @@ public class TypingTesterGUI {
 
     /**
      * Displays the progress graph for speed and accuracy.
+     * The charts are drawn in the background, so the graph window opens as soon as they are ready.
      */
     private void displayGraph() {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        for (int i = 0; i < speedHistory.size(); i++) {
-            dataset.addValue(speedHistory.get(i), "Speed", "Test " + (i + 1));
-            dataset.addValue(accuracyHistory.get(i), "Accuracy", "Test " + (i + 1));
-        }
-
-        JFreeChart lineChart = ChartFactory.createLineChart(
-                "Typing Test Progress",
-                "Test Number",
-                "Value",
-                dataset
-        );
-
-        ChartPanel chartPanel = new ChartPanel(lineChart);
-        chartPanel.setPreferredSize(new Dimension(800, 600));
-        JFrame graphFrame = new JFrame("Progress Graph");
-        graphFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        graphFrame.add(chartPanel);
-        graphFrame.pack();
-        graphFrame.setVisible(true);
+        charts.getImage().whenComplete((image, e) -> SwingUtilities.invokeLater(() -> {
+            if (e != null) {
+                Logger.getLogger(TypingTesterGUI.class.getName()).log(Level.SEVERE, null, e);
+                return;
+            }
+            JLabel chartLabel = new JLabel(new ImageIcon(image));
+            JFrame graphFrame = new JFrame("Progress Graph");
+            graphFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            graphFrame.add(new JScrollPane(chartLabel));
+            graphFrame.pack();
+            graphFrame.setVisible(true);
+        }));
     }
 
     /**